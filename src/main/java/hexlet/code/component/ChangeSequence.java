@@ -0,0 +1,75 @@
+package hexlet.code.component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Gives every task changed or deleted by a transaction the same change sequence value, so a client syncing
+ * changes sees a transaction either in full or not at all.
+ * While the transaction runs its rows hold a negative placeholder taken from task_change_seq. Right before
+ * the commit the placeholder is replaced by the next value of the task_change_counter row; the row stays
+ * locked until the commit, so values are committed in their order and a committed value is never followed
+ * by a smaller one.
+ */
+@Component
+public class ChangeSequence {
+    private static final String SEQUENCE = "task_change_seq";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return placeholder of the current transaction, taken from the sequence on the first call
+     */
+    public long current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change sequence is only available inside a transaction");
+        }
+
+        // Synchronizations of a suspended transaction are not listed, a nested one gets its own value
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Assignment assignment && assignment.owner() == this) {
+                return assignment.placeholder();
+            }
+        }
+
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        String sql = dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE);
+        long placeholder = -((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+
+        TransactionSynchronizationManager.registerSynchronization(new Assignment(this, placeholder));
+        return placeholder;
+    }
+
+    // Managed tasks keep the placeholder until the transaction ends, every later change sets a new one
+    private void assign(long placeholder) {
+        entityManager.flush();
+        entityManager.createNativeQuery("update task_change_counter set last_seq = last_seq + 1 where id = 1")
+                .executeUpdate();
+        long value = ((Number) entityManager.createNativeQuery(
+                "select last_seq from task_change_counter where id = 1").getSingleResult()).longValue();
+
+        for (String table : new String[] {"tasks", "task_tombstones"}) {
+            entityManager.createNativeQuery("update " + table + " set change_seq = :value"
+                            + " where change_seq = :placeholder")
+                    .setParameter("value", value)
+                    .setParameter("placeholder", placeholder)
+                    .executeUpdate();
+        }
+    }
+
+    private record Assignment(ChangeSequence owner, long placeholder) implements TransactionSynchronization {
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            owner.assign(placeholder);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hexlet.code.model.IdempotencyRecord;
+import hexlet.code.repository.IdempotencyRecordRepository;
+import hexlet.code.util.exception.BadDataException;
+import hexlet.code.util.exception.RequestInProgressException;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys of create requests. A request repeated with the same key and body returns the resource made
+ * by the first one instead of creating another. Keys are stored for ttl in the idempotency_keys table, recent ones
+ * are also kept in memory. Repeats arriving while the first request runs on this instance wait for it.
+ */
+@Component
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${idempotency.hot-size:10000}")
+    private long hotSize;
+
+    @Value("${idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout;
+
+    private Cache<String, IdempotencyRecord> hot;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        hot = Caffeine.newBuilder()
+                .maximumSize(hotSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param scope kind of the created resource, keys of different scopes never match
+     * @param key value of the Idempotency-Key header, the action just runs if it is null
+     * @param request body of the request, a key repeated with another body is rejected
+     * @param action creates the resource, in the transaction storing the key
+     * @param idOf gives the id of the created resource
+     * @param replay reads the resource created by the first request with the key
+     * @return created resource, or the one created before with the same key
+     */
+    public <T> T execute(String scope, String key, Object request, Supplier<T> action, Function<T, Long> idOf,
+                         Function<Long, T> replay) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadDataException(HEADER + " has to contain 1 to " + MAX_KEY_LENGTH + " symbols");
+        }
+
+        String keyHash = hash((scope + ":" + owner() + ":" + key).getBytes(StandardCharsets.UTF_8));
+        String requestHash = hash(toJson(request));
+
+        while (true) {
+            IdempotencyRecord stored = hot.getIfPresent(keyHash);
+            if (stored != null) {
+                return replay(stored, requestHash, replay);
+            }
+
+            CompletableFuture<Void> running = new CompletableFuture<>();
+            CompletableFuture<Void> other = inFlight.putIfAbsent(keyHash, running);
+            if (other != null) {
+                // Checks the memory again once the other request ends, it may have failed and stored nothing
+                await(other);
+                continue;
+            }
+
+            try {
+                Outcome<T> outcome = run(keyHash, requestHash, action, idOf);
+                hot.put(keyHash, outcome.record);
+                return outcome.result != null ? outcome.result : replay(outcome.record, requestHash, replay);
+            } finally {
+                inFlight.remove(keyHash, running);
+                running.complete(null);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${idempotency.cleanup-delay-ms:3600000}",
+            fixedDelayString = "${idempotency.cleanup-delay-ms:3600000}")
+    public void removeExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(ttl);
+        Integer removed = transactionTemplate.execute(status -> repository.deleteCreatedBefore(before));
+
+        LOGGER.info(removed + " expired idempotency keys are removed");
+    }
+
+    private <T> Outcome<T> run(String keyHash, String requestHash, Supplier<T> action, Function<T, Long> idOf) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<IdempotencyRecord> found = repository.findById(keyHash);
+                if (found.isPresent() && !isExpired(found.get())) {
+                    return new Outcome<T>(found.get(), null);
+                }
+                if (found.isPresent()) {
+                    repository.delete(found.get());
+                    repository.flush();
+                }
+
+                T result = action.get();
+                IdempotencyRecord record = new IdempotencyRecord(keyHash, requestHash, idOf.apply(result),
+                        LocalDateTime.now());
+                repository.insert(record);
+                return new Outcome<>(record, result);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the key first, the resource created here is rolled back
+            return repository.findById(keyHash)
+                    .map(record -> new Outcome<T>(record, null))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Function<Long, T> replay) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new BadDataException(HEADER + " was already used with another request");
+        }
+
+        LOGGER.info("Request is repeated with the same " + HEADER + ", resource id=" + record.getResourceId());
+        return replay.apply(record.getResourceId());
+    }
+
+    private void await(CompletableFuture<Void> other) {
+        try {
+            other.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException();
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private byte[] toJson(Object request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String owner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private static String hash(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Outcome<T> {
+        private final IdempotencyRecord record;
+        private final T result;
+    }
+}
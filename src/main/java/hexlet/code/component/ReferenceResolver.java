@@ -0,0 +1,80 @@
+package hexlet.code.component;
+
+import hexlet.code.model.BaseEntity;
+import hexlet.code.util.exception.EntityNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Turns ids sent by clients into entities to associate with. Ids of one entity type are checked by a single query
+ * reading ids only, and the entities are handed out as lazy references, loaded only if something reads them.
+ */
+@Component
+public class ReferenceResolver {
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param type entity class
+     * @param id entity id, may be null
+     * @param entityName name used in the error message
+     * @return reference to the entity, null if the id is null
+     * @throws EntityNotFoundException if there is no entity with the id
+     */
+    public <T extends BaseEntity> T resolve(Class<T> type, Long id, String entityName) {
+        if (id == null) {
+            return null;
+        }
+        return resolveAll(type, Set.of(id), entityName).get(id);
+    }
+
+    /**
+     * @param type entity class
+     * @param ids entity ids
+     * @param entityName name used in the error message
+     * @return reference to the entity by id for every id
+     * @throws EntityNotFoundException naming every missing id
+     */
+    public <T extends BaseEntity> Map<Long, T> resolveAll(Class<T> type, Collection<Long> ids, String entityName) {
+        Map<Long, T> references = findAll(type, ids);
+
+        if (references.size() < new HashSet<>(ids).size()) {
+            Set<Long> missing = new TreeSet<>(ids);
+            missing.removeAll(references.keySet());
+            throw new EntityNotFoundException(entityName, missing);
+        }
+        return references;
+    }
+
+    /**
+     * @param type entity class
+     * @param ids entity ids
+     * @return reference to the entity by id for the ids having one, missing ids are left out
+     */
+    public <T extends BaseEntity> Map<Long, T> findAll(Class<T> type, Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new TreeSet<>(ids));
+        String query = "select e.id from " + entityManager.getMetamodel().entity(type).getName()
+                + " e where e.id in :ids";
+        Map<Long, T> references = new LinkedHashMap<>();
+
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + IN_CHUNK_SIZE, distinct.size()));
+            for (Long id : entityManager.createQuery(query, Long.class).setParameter("ids", chunk).getResultList()) {
+                references.put(id, entityManager.getReference(type, id));
+            }
+        }
+        return references;
+    }
+}
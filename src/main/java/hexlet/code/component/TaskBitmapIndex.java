@@ -0,0 +1,239 @@
+package hexlet.code.component;
+
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.util.TaskFilterSpec;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory index keeping a compressed bitmap of task ids per status, author, executor and label.
+ * Filters normalized to a TaskFilterSpec are answered with bitmap unions and intersections, so the database
+ * only fetches the matching rows by id. The index follows committed task changes and is checked against
+ * the database on a schedule.
+ */
+@Component
+public class TaskBitmapIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskBitmapIndex.class);
+
+    private static final int FETCH_SIZE = 10000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Value("${task-index.enabled:false}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // null until built
+    private Bitmaps bitmaps;
+
+    // Changes applied while a rebuild reads the database, replayed onto the new bitmaps
+    private List<TaskChangedEvent> journal;
+
+    /**
+     * @param spec normalized filter
+     * @return ids of matching tasks in ascending order, empty if the index is disabled or not built yet
+     * or the spec has no conditions, a single scan serves the whole table better than fetching every id
+     */
+    public Optional<List<Long>> findIds(TaskFilterSpec spec) {
+        lock.readLock().lock();
+        try {
+            if (!enabled || bitmaps == null || spec.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Roaring64NavigableMap result = new Roaring64NavigableMap();
+            result.or(bitmaps.all);
+            and(result, bitmaps.byStatus, spec.get(TaskFilterSpec.STATUS));
+            and(result, bitmaps.byAuthor, spec.get(TaskFilterSpec.AUTHOR));
+            and(result, bitmaps.byExecutor, spec.get(TaskFilterSpec.EXECUTOR));
+            and(result, bitmaps.byLabel, spec.get(TaskFilterSpec.LABELS));
+            if (spec.get(TaskFilterSpec.LABELS_ALL) != null) {
+                spec.get(TaskFilterSpec.LABELS_ALL).forEach(id -> and(result, bitmaps.byLabel, Set.of(id)));
+            }
+
+            List<Long> ids = new ArrayList<>((int) result.getLongCardinality());
+            result.forEach(ids::add);
+            return Optional.of(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (bitmaps != null) {
+                bitmaps.apply(event);
+            }
+            if (journal != null) {
+                journal.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database and warns if the index kept up to date differed from it.
+     */
+    @Scheduled(initialDelayString = "${task-index.check-delay-ms:600000}",
+            fixedDelayString = "${task-index.check-delay-ms:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void check() {
+        if (enabled && !load()) {
+            LOGGER.warn("Task index differed from the database and has been rebuilt");
+        }
+    }
+
+    // Returns true if the replaced bitmaps were equal to the loaded ones
+    private boolean load() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps loaded = new Bitmaps();
+        try (Stream<TaskSnapshot> snapshots = taskRepository.streamSnapshots(FETCH_SIZE)) {
+            snapshots.forEach(loaded::add);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        // Replay and swap under one lock, a change coming in between would be applied to the replaced bitmaps
+        lock.writeLock().lock();
+        try {
+            // Changes committed while streaming may be missing from the rows, replaying them is harmless
+            journal.forEach(loaded::apply);
+            journal = null;
+
+            boolean consistent = loaded.equals(bitmaps);
+            bitmaps = loaded;
+            LOGGER.info("Task index built with " + loaded.all.getLongCardinality() + " tasks");
+            return consistent;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void and(Roaring64NavigableMap result, Map<Long, Roaring64NavigableMap> index, Set<Long> ids) {
+        if (ids == null) {
+            return;
+        }
+
+        Roaring64NavigableMap matching = new Roaring64NavigableMap();
+        for (Long id : ids) {
+            Roaring64NavigableMap bitmap = index.get(id);
+            if (bitmap != null) {
+                matching.or(bitmap);
+            }
+        }
+        result.and(matching);
+    }
+
+    private static final class Bitmaps {
+        private final Roaring64NavigableMap all = new Roaring64NavigableMap();
+        private final Map<Long, Roaring64NavigableMap> byStatus = new HashMap<>();
+        private final Map<Long, Roaring64NavigableMap> byAuthor = new HashMap<>();
+        private final Map<Long, Roaring64NavigableMap> byExecutor = new HashMap<>();
+        private final Map<Long, Roaring64NavigableMap> byLabel = new HashMap<>();
+
+        void apply(TaskChangedEvent event) {
+            if (event.getBefore() != null) {
+                remove(event.getBefore());
+            }
+            if (event.getAfter() != null) {
+                add(event.getAfter());
+            }
+        }
+
+        void add(TaskSnapshot task) {
+            long id = task.getId();
+            all.addLong(id);
+            bitmap(byStatus, task.getTaskStatusId()).addLong(id);
+            bitmap(byAuthor, task.getAuthorId()).addLong(id);
+            if (task.getExecutorId() != null) {
+                bitmap(byExecutor, task.getExecutorId()).addLong(id);
+            }
+            task.getLabelIds().forEach(labelId -> bitmap(byLabel, labelId).addLong(id));
+        }
+
+        void remove(TaskSnapshot task) {
+            long id = task.getId();
+            all.removeLong(id);
+            remove(byStatus, task.getTaskStatusId(), id);
+            remove(byAuthor, task.getAuthorId(), id);
+            remove(byExecutor, task.getExecutorId(), id);
+            task.getLabelIds().forEach(labelId -> remove(byLabel, labelId, id));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Bitmaps bitmaps
+                    && all.equals(bitmaps.all)
+                    && byStatus.equals(bitmaps.byStatus)
+                    && byAuthor.equals(bitmaps.byAuthor)
+                    && byExecutor.equals(bitmaps.byExecutor)
+                    && byLabel.equals(bitmaps.byLabel);
+        }
+
+        @Override
+        public int hashCode() {
+            return all.hashCode();
+        }
+
+        private static Roaring64NavigableMap bitmap(Map<Long, Roaring64NavigableMap> index, Long id) {
+            return index.computeIfAbsent(id, key -> new Roaring64NavigableMap());
+        }
+
+        // Empty bitmaps are dropped, so an index built from scratch equals one kept up to date
+        private static void remove(Map<Long, Roaring64NavigableMap> index, Long id, long taskId) {
+            Roaring64NavigableMap bitmap = index.get(id);
+            if (bitmap != null) {
+                bitmap.removeLong(taskId);
+                if (bitmap.isEmpty()) {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+}
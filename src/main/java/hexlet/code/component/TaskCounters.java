@@ -0,0 +1,183 @@
+package hexlet.code.component;
+
+import hexlet.code.dto.task.TaskCountersDTO;
+import hexlet.code.dto.task.TaskCountsDTO;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Task counts per status, executor and label kept in memory and changed by committed task changes.
+ * Writers only add to LongAdder cells, so concurrent commits never block each other and readers take no lock.
+ * A read is not an atomic snapshot across keys, every single count is exact once the commits it reflects
+ * are applied.
+ */
+@Component
+public class TaskCounters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskCounters.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder unassigned = new LongAdder();
+    private final Map<Long, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> byExecutor = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> byLabel = new ConcurrentHashMap<>();
+
+    // Differences found by the previous reconciliation, see reconcile()
+    private Map<String, Long> lastDrift = new HashMap<>();
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        apply(event.getBefore(), -1);
+        apply(event.getAfter(), 1);
+    }
+
+    public TaskCountersDTO getCounters() {
+        TaskCountersDTO counters = new TaskCountersDTO();
+        counters.setTotal(total.sum());
+        counters.setUnassigned(unassigned.sum());
+        copy(byStatus, counters.getByStatus());
+        copy(byExecutor, counters.getByExecutor());
+        copy(byLabel, counters.getByLabel());
+        return counters;
+    }
+
+    /**
+     * Brings the counters to the counts in the database. Corrections are added to the current values
+     * instead of replacing them, so changes committed meanwhile are not lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Map<String, Long> drift = drift();
+        drift.forEach(this::correct);
+        lastDrift = new HashMap<>();
+
+        LOGGER.info("Task counters rebuilt, " + drift.size() + " of them corrected");
+    }
+
+    /**
+     * Compares the counters with the database. A difference can be caused by a transaction committed
+     * but not applied yet, so only the differences found unchanged by two runs in a row are corrected.
+     */
+    @Scheduled(initialDelayString = "${task-counters.reconcile-delay-ms:300000}",
+            fixedDelayString = "${task-counters.reconcile-delay-ms:300000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        Map<String, Long> drift = drift();
+        Map<String, Long> confirmed = new HashMap<>();
+
+        drift.forEach((key, difference) -> {
+            if (difference.equals(lastDrift.get(key))) {
+                confirmed.put(key, difference);
+            }
+        });
+
+        if (!confirmed.isEmpty()) {
+            LOGGER.warn("Task counters drifted from the database, correcting " + confirmed);
+            confirmed.forEach(this::correct);
+            confirmed.keySet().forEach(drift::remove);
+        }
+
+        lastDrift = drift;
+    }
+
+    private void apply(TaskSnapshot task, int delta) {
+        if (task == null) {
+            return;
+        }
+
+        total.add(delta);
+        add(byStatus, task.getTaskStatusId(), delta);
+
+        if (task.getExecutorId() == null) {
+            unassigned.add(delta);
+        } else {
+            add(byExecutor, task.getExecutorId(), delta);
+        }
+
+        for (Long labelId : task.getLabelIds()) {
+            add(byLabel, labelId, delta);
+        }
+    }
+
+    // Differences between the database and the counters keyed like "status:1", zero differences are left out
+    private Map<String, Long> drift() {
+        TaskCountsDTO counts = taskRepository.countTasks(null);
+        Map<String, Long> drift = new HashMap<>();
+
+        putDrift(drift, "total", counts.getTotal() - total.sum());
+        putDrift(drift, "unassigned", counts.getUnassigned() - unassigned.sum());
+        putDrift(drift, "status", counts.getByStatus(), byStatus);
+        putDrift(drift, "executor", counts.getByExecutor(), byExecutor);
+        putDrift(drift, "label", counts.getByLabel(), byLabel);
+
+        return drift;
+    }
+
+    private void correct(String key, long difference) {
+        int separator = key.indexOf(':');
+        if (separator < 0) {
+            (key.equals("total") ? total : unassigned).add(difference);
+            return;
+        }
+
+        Long id = Long.valueOf(key.substring(separator + 1));
+        switch (key.substring(0, separator)) {
+            case "status" -> add(byStatus, id, difference);
+            case "executor" -> add(byExecutor, id, difference);
+            default -> add(byLabel, id, difference);
+        }
+    }
+
+    private static void putDrift(Map<String, Long> drift, String prefix, Map<Long, Long> expected,
+                                 Map<Long, LongAdder> actual) {
+        Set<Long> ids = new HashSet<>(expected.keySet());
+        ids.addAll(actual.keySet());
+
+        for (Long id : ids) {
+            LongAdder counter = actual.get(id);
+            long difference = expected.getOrDefault(id, 0L) - (counter == null ? 0 : counter.sum());
+            putDrift(drift, prefix + ":" + id, difference);
+        }
+    }
+
+    private static void putDrift(Map<String, Long> drift, String key, long difference) {
+        if (difference != 0) {
+            drift.put(key, difference);
+        }
+    }
+
+    private static void add(Map<Long, LongAdder> counters, Long id, long delta) {
+        if (id != null) {
+            counters.computeIfAbsent(id, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static void copy(Map<Long, LongAdder> counters, Map<Long, Long> target) {
+        counters.forEach((id, counter) -> {
+            long value = counter.sum();
+            if (value != 0) {
+                target.put(id, value);
+            }
+        });
+    }
+}
@@ -0,0 +1,199 @@
+package hexlet.code.component;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.task.TaskDeleteJobDTO;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.QTask;
+import hexlet.code.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk deletes of tasks, run one at a time in the background. Each chunk of tasks is deleted by its own short
+ * transaction with a pause after it, so row locks are held briefly and normal requests keep going between chunks.
+ * Jobs are kept in memory for keep-finished after they end, their progress is lost on restart.
+ */
+@Component
+public class TaskDeleteJobs {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskDeleteJobs.class);
+    private static final QTask TASK = QTask.task;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${task-delete.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${task-delete.chunk-pause:PT0.05S}")
+    private Duration chunkPause;
+
+    @Value("${task-delete.keep-finished:PT1H}")
+    private Duration keepFinished;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * @param predicate chosen tasks, not null
+     * @param authorId id of the user asking, only the tasks of this author are deleted
+     * @return progress of the queued job
+     */
+    public TaskDeleteJobDTO start(Predicate predicate, Long authorId) {
+        prune();
+
+        Job job = new Job(sequence.incrementAndGet(), authorId);
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, predicate));
+
+        LOGGER.info("Task delete job " + job.id + " queued");
+        return job.toDTO();
+    }
+
+    /**
+     * @param id job id
+     * @param authorId id of the user asking
+     * @return progress of the job, empty if it is unknown, forgotten or started by another user
+     */
+    public Optional<TaskDeleteJobDTO> find(Long id, Long authorId) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.authorId.equals(authorId))
+                .map(Job::toDTO);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Predicate predicate) {
+        job.status = Status.RUNNING;
+
+        try {
+            Predicate owned = new BooleanBuilder(predicate).and(TASK.author.id.eq(job.authorId));
+            job.total = taskRepository.count(owned);
+            job.denied = taskRepository.count(predicate) - job.total;
+
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                Chunk chunk = transactionTemplate.execute(status -> deleteChunk(owned, job.authorId, from));
+                if (chunk == null) {
+                    break;
+                }
+
+                // Counted once committed, a chunk rolled back leaves the progress as it was
+                job.deleted += chunk.deleted;
+                afterId = chunk.lastId;
+                Thread.sleep(chunkPause.toMillis());
+            }
+
+            job.finish(Status.DONE, null);
+            LOGGER.info("Task delete job " + job.id + " deleted " + job.deleted + " tasks");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(Status.FAILED, "Interrupted after " + job.deleted + " tasks");
+        } catch (RuntimeException e) {
+            LOGGER.error("Task delete job " + job.id + " failed", e);
+            job.finish(Status.FAILED, e.getMessage());
+        }
+    }
+
+    // Returns null once no task is left after afterId
+    private Chunk deleteChunk(Predicate owned, Long authorId, long afterId) {
+        List<Long> ids = taskRepository.lockIds(new BooleanBuilder(owned).and(TASK.id.gt(afterId)), chunkSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        List<TaskSnapshot> before = taskRepository.findSnapshots(TASK.id.in(ids));
+        int deleted = taskRepository.deleteOwned(ids, authorId, changeSequence.current());
+        before.forEach(snapshot -> eventPublisher.publishEvent(new TaskChangedEvent(snapshot, null)));
+
+        return new Chunk(ids.get(ids.size() - 1), deleted);
+    }
+
+    private void prune() {
+        LocalDateTime oldest = LocalDateTime.now().minus(keepFinished);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(oldest));
+    }
+
+    @AllArgsConstructor
+    private static final class Chunk {
+        private final long lastId;
+        private final int deleted;
+    }
+
+    private static final class Job {
+        private final Long id;
+        private final Long authorId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile long total;
+        private volatile long denied;
+        private volatile long deleted;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(Long id, Long authorId) {
+            this.id = id;
+            this.authorId = authorId;
+        }
+
+        private void finish(Status result, String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = result;
+        }
+
+        private TaskDeleteJobDTO toDTO() {
+            TaskDeleteJobDTO dto = new TaskDeleteJobDTO();
+            dto.setId(id);
+            dto.setStatus(status.name());
+            dto.setTotal(total);
+            dto.setDenied(denied);
+            dto.setDeleted(deleted);
+            dto.setCreatedAt(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt));
+            dto.setFinishedAt(finishedAt == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(finishedAt));
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
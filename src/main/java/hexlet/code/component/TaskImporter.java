@@ -0,0 +1,247 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.BulkItemResultDTO;
+import hexlet.code.dto.task.TaskExportRow;
+import hexlet.code.dto.task.TaskImportResultDTO;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.Label;
+import hexlet.code.model.Status;
+import hexlet.code.model.Task;
+import hexlet.code.model.User;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.util.exception.BadDataException;
+import hexlet.code.util.exception.EntityNotFoundByNameException;
+import hexlet.code.util.export.ExportFormat;
+import hexlet.code.util.export.TaskImportLine;
+import hexlet.code.util.export.TaskImportReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports tasks from NDJSON or CSV, plain or gzip compressed, read as they arrive. Status, executor and label
+ * names are resolved with maps loaded once per import. Tasks are inserted by batch-size in one transaction,
+ * in JDBC batches. A line that can not be imported is reported and skipped, a failed batch is inserted again
+ * line by line, each in its own transaction, so only the lines failing alone are reported.
+ */
+@Component
+public class TaskImporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskImporter.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int FLUSH_SIZE = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${task-import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * @param in uploaded body, gzip is recognized by its magic bytes
+     * @param format layout of the body
+     * @param authorId id of the user importing, the author of every task
+     * @return counts of imported and failed tasks with the errors of the first failed lines
+     */
+    public TaskImportResultDTO importTasks(InputStream in, ExportFormat format, Long authorId) throws IOException {
+        Lookups lookups = transactionTemplate.execute(status -> new Lookups(
+                ids("select s.name, s.id from Status s"),
+                ids("select u.email, u.id from User u"),
+                ids("select l.name, l.id from Label l")));
+        TaskImportResultDTO result = new TaskImportResultDTO();
+        List<ImportedTask> batch = new ArrayList<>(batchSize);
+        int line = 0;
+
+        try (TaskImportReader reader = TaskImportReader.of(format, decompress(in), objectMapper)) {
+            for (TaskImportLine next = reader.next(); next != null; next = reader.next()) {
+                line = next.getLine();
+                if (next.getError() != null) {
+                    fail(result, line, HttpStatus.UNPROCESSABLE_ENTITY, next.getError());
+                    continue;
+                }
+
+                try {
+                    batch.add(lookups.resolve(line, next.getRow()));
+                } catch (EntityNotFoundByNameException e) {
+                    fail(result, line, HttpStatus.NOT_FOUND, e.getMessage());
+                } catch (BadDataException e) {
+                    fail(result, line, HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+                }
+
+                if (batch.size() == batchSize) {
+                    insert(batch, authorId, result);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Tasks read before stay imported, the result tells where the input broke
+            fail(result, line + 1, HttpStatus.BAD_REQUEST, "Input can not be read after line " + line + ": "
+                    + e.getMessage());
+        }
+
+        insert(batch, authorId, result);
+        LOGGER.info("Tasks imported: " + result.getImported() + ", failed: " + result.getFailed());
+        return result;
+    }
+
+    private void insert(List<ImportedTask> batch, Long authorId, TaskImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long changeSeq = changeSequence.current();
+                User author = entityManager.getReference(User.class, authorId);
+                List<Task> tasks = batch.stream().map(item -> item.toTask(entityManager, author, changeSeq)).toList();
+
+                taskRepository.insertAll(tasks, FLUSH_SIZE);
+                tasks.forEach(task -> eventPublisher.publishEvent(new TaskChangedEvent(null, TaskSnapshot.of(task))));
+            });
+            result.setImported(result.getImported() + batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                retryOneByOne(batch, authorId, result);
+            } else if (e instanceof DataIntegrityViolationException violation) {
+                fail(result, batch.get(0).line, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Task can not be saved: " + violation.getMostSpecificCause().getMessage());
+            } else {
+                LOGGER.error("Imported task on line " + batch.get(0).line + " failed", e);
+                fail(result, batch.get(0).line, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    private void retryOneByOne(List<ImportedTask> batch, Long authorId, TaskImportResultDTO result) {
+        LOGGER.warn("Batch of " + batch.size() + " imported tasks failed, inserting its tasks one by one");
+        batch.forEach(item -> insert(List.of(item), authorId, result));
+    }
+
+    private Map<String, Long> ids(String query) {
+        Map<String, Long> ids = new HashMap<>();
+        entityManager.createQuery(query, Object[].class)
+                .getResultStream()
+                .forEach(row -> ids.put((String) row[0], (Long) row[1]));
+        return ids;
+    }
+
+    private static void fail(TaskImportResultDTO result, int line, HttpStatus status, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkItemResultDTO(line, null, status.value(), error));
+        }
+    }
+
+    private static InputStream decompress(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    @AllArgsConstructor
+    private static final class Lookups {
+        private final Map<String, Long> statuses;
+        private final Map<String, Long> users;
+        private final Map<String, Long> labels;
+
+        private ImportedTask resolve(int line, TaskExportRow row) {
+            if (row.getName() == null || row.getName().isBlank()) {
+                throw new BadDataException("Name cannot be empty");
+            }
+            if (row.getTaskStatus() == null) {
+                throw new BadDataException("Task status cannot be empty");
+            }
+            if (row.getName().length() > MAX_TEXT_LENGTH) {
+                throw new BadDataException("Name has to contain at most " + MAX_TEXT_LENGTH + " symbols");
+            }
+            if (row.getDescription() != null && row.getDescription().length() > MAX_TEXT_LENGTH) {
+                throw new BadDataException("Description has to contain at most " + MAX_TEXT_LENGTH + " symbols");
+            }
+
+            Set<Long> labelIds = new HashSet<>();
+            for (String label : row.getLabels()) {
+                labelIds.add(find(labels, label, "Label"));
+            }
+
+            return new ImportedTask(line, row.getName(), row.getDescription(),
+                    find(statuses, row.getTaskStatus(), "Status"),
+                    row.getExecutor() == null ? null : find(users, row.getExecutor(), "Executor"),
+                    labelIds);
+        }
+
+        private static Long find(Map<String, Long> ids, String name, String entityName) {
+            Long id = ids.get(name);
+            if (id == null) {
+                throw new EntityNotFoundByNameException(entityName, name);
+            }
+            return id;
+        }
+    }
+
+    // Holds ids only, batches waiting for insert keep no entities
+    @AllArgsConstructor
+    private static final class ImportedTask {
+        private final int line;
+        private final String name;
+        private final String description;
+        private final Long statusId;
+        private final Long executorId;
+        private final Set<Long> labelIds;
+
+        private Task toTask(EntityManager entityManager, User author, long changeSeq) {
+            Task task = new Task();
+            task.setName(name);
+            task.setDescription(description);
+            task.setAuthor(author);
+            task.setTaskStatus(entityManager.getReference(Status.class, statusId));
+            task.setExecutor(executorId == null ? null : entityManager.getReference(User.class, executorId));
+            Set<Label> taskLabels = new HashSet<>();
+            labelIds.forEach(labelId -> taskLabels.add(entityManager.getReference(Label.class, labelId)));
+            task.setLabels(taskLabels);
+            task.setChangeSeq(changeSeq);
+            return task;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package hexlet.code.component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.LabelDTO;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.user.ResponseUserDTO;
+import hexlet.code.event.EntityChangedEvent;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Status;
+import hexlet.code.model.User;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskFilterSpec;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task lists by filter, kept for a while and dropped right after a commit changing any task or entity they hold.
+ * Concurrent misses of one filter wait for a single load. Entries older than refresh-after-write are still
+ * served while one reload runs in the background.
+ */
+@Component
+public class TaskListCache {
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskBitmapIndex taskBitmapIndex;
+
+    @Value("${task-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${task-cache.maximum-size:1000}")
+    private long maximumSize;
+
+    @Value("${task-cache.expire-after-write:PT10M}")
+    private Duration expireAfterWrite;
+
+    @Value("${task-cache.refresh-after-write:PT1M}")
+    private Duration refreshAfterWrite;
+
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private LoadingCache<Key, List<ResponseTaskDTO>> cache;
+
+    // Counts invalidations, a load overlapping one may have read data from before the commit
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .build(this::load);
+    }
+
+    /**
+     * @param predicate filter built from request parameters, may be null
+     * @param fields fields of the response to fill
+     * @return tasks ordered by id, from the cache if the filter can be normalized
+     */
+    public List<ResponseTaskDTO> findAll(Predicate predicate, SparseFields fields) {
+        Optional<TaskFilterSpec> spec = TaskFilterSpec.of(predicate);
+
+        if (!enabled || spec.isEmpty()) {
+            return fetch(spec, predicate, fields);
+        }
+        return cache.get(new Key(spec.get(), fields.isAll() ? null : fields.getFields(), predicate, fields));
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> event.getBefore() != null && key.getSpec().matches(event.getBefore())
+                || event.getAfter() != null && key.getSpec().matches(event.getAfter()));
+    }
+
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(tasks -> tasks.stream().anyMatch(task -> refersTo(task, event)));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private List<ResponseTaskDTO> load(Key key) {
+        List<ResponseTaskDTO> tasks;
+        int attempt = 0;
+        long before;
+
+        do {
+            before = invalidations.get();
+            tasks = List.copyOf(fetch(Optional.of(key.getSpec()), key.getPredicate(), key.getSparseFields()));
+            attempt++;
+        } while (before != invalidations.get() && attempt < LOAD_ATTEMPTS);
+
+        return tasks;
+    }
+
+    // Ids from the bitmap index are fetched together with the predicate, so a stale index can drop rows but not add
+    private List<ResponseTaskDTO> fetch(Optional<TaskFilterSpec> spec, Predicate predicate, SparseFields fields) {
+        Optional<List<Long>> ids = spec.flatMap(taskBitmapIndex::findIds);
+
+        if (ids.isPresent()) {
+            return taskRepository.findRowsByIds(ids.get(), predicate, fields);
+        }
+        return taskRepository.findRows(predicate, fields, 0, QTask.task.id.asc());
+    }
+
+    private static boolean refersTo(ResponseTaskDTO task, EntityChangedEvent event) {
+        Long id = event.getId();
+
+        if (event.getType() == Status.class) {
+            return task.getTaskStatus() != null && id.equals(task.getTaskStatus().getId());
+        }
+        if (event.getType() == User.class) {
+            return isUser(task.getAuthor(), id) || isUser(task.getExecutor(), id);
+        }
+        if (event.getType() == Label.class) {
+            return task.getLabels() != null && task.getLabels().stream().map(LabelDTO::getId).anyMatch(id::equals);
+        }
+        return true;
+    }
+
+    private static boolean isUser(ResponseUserDTO user, Long id) {
+        return user != null && id.equals(user.getId());
+    }
+
+    // Predicates equal by spec filter the same way, so any of them can load the entry
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+    private static final class Key {
+        @EqualsAndHashCode.Include
+        private final TaskFilterSpec spec;
+        @EqualsAndHashCode.Include
+        private final Set<String> fields;
+        private final Predicate predicate;
+        private final SparseFields sparseFields;
+    }
+}
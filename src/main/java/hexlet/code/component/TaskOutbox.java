@@ -0,0 +1,147 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskEventConsumer;
+import hexlet.code.event.TaskEventMessage;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.TaskOutboxEvent;
+import hexlet.code.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox of task changes. Each TaskChangedEvent is written to task_outbox by the transaction publishing it,
+ * so a change is delivered only once committed and is not lost if the application stops right after.
+ * The drainer takes batches of rows skipping those locked by another instance, hands them to every
+ * TaskEventConsumer and deletes them in the same transaction; a failed batch stays and is given again.
+ * Metrics: task.outbox.pending rows, task.outbox.lag age of the oldest row, dispatched and failed batches.
+ */
+@Component
+public class TaskOutbox {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskOutbox.class);
+
+    @Autowired
+    private TaskOutboxRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<TaskEventConsumer> consumers = List.of();
+
+    @Value("${task-outbox.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter dispatched;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("task.outbox.pending", pending, AtomicLong::get)
+                .description("Task changes not handed to the consumers yet")
+                .register(meterRegistry);
+        Gauge.builder("task.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest task change not handed to the consumers")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        dispatched = Counter.builder("task.outbox.dispatched")
+                .description("Task changes handed to the consumers")
+                .register(meterRegistry);
+        failures = Counter.builder("task.outbox.failures")
+                .description("Batches of task changes failed by a consumer")
+                .register(meterRegistry);
+    }
+
+    // Runs in the transaction of the change, the row is rolled back together with it
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskSnapshot task = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        TaskOutboxEvent.Type type = event.getBefore() == null ? TaskOutboxEvent.Type.CREATED
+                : event.getAfter() == null ? TaskOutboxEvent.Type.DELETED : TaskOutboxEvent.Type.UPDATED;
+
+        repository.save(new TaskOutboxEvent(task.getId(), type, toJson(event)));
+    }
+
+    /**
+     * Hands the outbox to the consumers batch by batch until it is empty or a batch fails.
+     */
+    @Scheduled(initialDelayString = "${task-outbox.poll-delay-ms:1000}",
+            fixedDelayString = "${task-outbox.poll-delay-ms:1000}")
+    public synchronized void drain() {
+        try {
+            Integer drained;
+            do {
+                drained = transactionTemplate.execute(status -> drainBatch());
+            } while (drained != null && drained == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            LOGGER.error("Task outbox batch failed, it is given to the consumers again on the next run", e);
+        } finally {
+            measureLag();
+        }
+    }
+
+    private int drainBatch() {
+        List<TaskOutboxEvent> batch = repository.claim(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<TaskEventMessage> messages = batch.stream()
+                .map(row -> new TaskEventMessage(row.getId(), row.getCreatedAt(), fromJson(row.getPayload())))
+                .toList();
+        consumers.forEach(consumer -> consumer.consume(messages));
+
+        repository.deleteByIds(batch.stream().map(TaskOutboxEvent::getId).toList());
+        dispatched.increment(batch.size());
+        return batch.size();
+    }
+
+    private void measureLag() {
+        LocalDateTime oldest = repository.findOldestCreatedAt();
+        pending.set(repository.count());
+        lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+
+    private String toJson(TaskChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TaskChangedEvent fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, TaskChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -43,7 +44,6 @@ public class LabelController {
     private static final Logger LOGGER = LoggerFactory.getLogger(LabelController.class);
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get all labels")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found labels",
@@ -51,11 +51,19 @@ public class LabelController {
                         array = @ArraySchema(schema = @Schema(implementation = LabelDTO.class)))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content
             )
     })
-    public List<LabelDTO> getLabels() {
+    public List<LabelDTO> getLabels(WebRequest request) {
+        if (request.checkNotModified(service.findListETag())) {
+            LOGGER.info("Labels not modified");
+            return null;
+        }
+
         List<LabelDTO> labels = service.findAll();
 
         LOGGER.info("All labels returned!");
@@ -63,7 +71,6 @@ public class LabelController {
     }
 
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get label by ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Label found",
@@ -71,6 +78,9 @@ public class LabelController {
                         schema = @Schema(implementation = LabelDTO.class))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
                 content = @Content
             ),
@@ -81,7 +91,13 @@ public class LabelController {
             )
     })
     public LabelDTO getLabel(
-            @Parameter(description = "Label id") @PathVariable("id") Long id) {
+            @Parameter(description = "Label id") @PathVariable("id") Long id,
+            WebRequest request) {
+        if (request.checkNotModified(service.findETag(id))) {
+            LOGGER.info("Label with id=" + id + " not modified");
+            return null;
+        }
+
         LabelDTO labelDTO = service.findById(id);
 
         LOGGER.info("Label with id=" + id + " returned!");
@@ -30,6 +30,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -43,7 +44,6 @@ public class StatusController {
     private static final Logger LOGGER = LoggerFactory.getLogger(StatusController.class);
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get all statuses")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found statuses",
@@ -51,11 +51,19 @@ public class StatusController {
                         array = @ArraySchema(schema = @Schema(implementation = StatusDTO.class)))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
                 content = @Content
             ),
     })
-    public List<StatusDTO> getStatuses() {
+    public List<StatusDTO> getStatuses(WebRequest request) {
+        if (request.checkNotModified(service.findListETag())) {
+            LOGGER.info("Statuses not modified");
+            return null;
+        }
+
         List<StatusDTO> statuses = service.findAll();
 
         LOGGER.info("All statuses returned!");
@@ -63,7 +71,6 @@ public class StatusController {
     }
 
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get status by ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Status found",
@@ -71,6 +78,9 @@ public class StatusController {
                         schema = @Schema(implementation = StatusDTO.class))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
                 content = @Content
             ),
@@ -81,7 +91,13 @@ public class StatusController {
             )
     })
     public StatusDTO getStatus(
-            @Parameter(description = "Status id") @PathVariable("id") Long id) {
+            @Parameter(description = "Status id") @PathVariable("id") Long id,
+            WebRequest request) {
+        if (request.checkNotModified(service.findETag(id))) {
+            LOGGER.info("Status with id=" + id + " not modified");
+            return null;
+        }
+
         StatusDTO statusDTO = service.findById(id);
 
         LOGGER.info("Status with id=" + id + " returned!");
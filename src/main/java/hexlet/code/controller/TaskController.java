@@ -1,15 +1,33 @@
 package hexlet.code.controller;
 
 import com.querydsl.core.types.Predicate;
+import hexlet.code.component.IdempotencyStore;
+import hexlet.code.component.TaskCounters;
+import hexlet.code.dto.BulkResultDTO;
+import hexlet.code.dto.BulkUpdateResultDTO;
 import hexlet.code.dto.ErrorResponse;
+import hexlet.code.dto.task.BulkDeleteTaskDTO;
+import hexlet.code.dto.task.BulkUpdateTaskDTO;
 import hexlet.code.dto.task.CreateTaskDTO;
 import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskChangesDTO;
+import hexlet.code.dto.task.TaskCountersDTO;
+import hexlet.code.dto.task.TaskCountsDTO;
+import hexlet.code.dto.task.TaskDeleteJobDTO;
+import hexlet.code.dto.task.TaskHistoryPageDTO;
+import hexlet.code.dto.task.TaskImportResultDTO;
+import hexlet.code.dto.task.TaskPageDTO;
 import hexlet.code.dto.task.UpdateTaskDTO;
 import hexlet.code.model.Task;
 import hexlet.code.service.TaskService;
 import hexlet.code.handler.FieldErrorHandler;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskFilterSpec;
+import hexlet.code.util.TaskSort;
+import hexlet.code.util.export.ExportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -23,7 +41,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.querydsl.binding.QuerydslPredicate;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -31,11 +52,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("${base-url}" + "/tasks")
@@ -45,10 +73,17 @@ import java.util.List;
 public class TaskController {
     @Autowired
     private TaskService service;
+    @Autowired
+    private TaskCounters counters;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskController.class);
+    private static final String LABELS_ALL_DESCRIPTION = "Ids of labels a task has to have all of, like"
+            + " labelsAllId=1&labelsAllId=2";
+    private static final String SORT_DESCRIPTION = "Order of tasks: createdAt, name, taskStatus or executor,"
+            + " optionally followed by ,asc or ,desc";
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get all tasks")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found tasks",
@@ -56,27 +91,223 @@ public class TaskController {
                         array = @ArraySchema(schema = @Schema(implementation = ResponseTaskDTO.class)))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
                 content = @Content
             ),
+        @ApiResponse(responseCode = "422", description = "Sort or fields invalid",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
     })
     public List<ResponseTaskDTO> getTasks(
-            @QuerydslPredicate(root = Task.class) Predicate predicate) {
-        List<ResponseTaskDTO> tasks = service.findAll(predicate);
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            @Parameter(description = "Comma separated fields to return, like id,name,author.email")
+            @RequestParam(value = SparseFields.PARAM, required = false) String fields,
+            @Parameter(description = SORT_DESCRIPTION)
+            @RequestParam(value = TaskSort.PARAM, required = false) String sort,
+            WebRequest request) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        if (request.checkNotModified(service.findListETag())) {
+            LOGGER.info("Tasks not modified");
+            return null;
+        }
+
+        List<ResponseTaskDTO> tasks = service.findAll(predicate, SparseFields.parse(fields, ResponseTaskDTO.class),
+                TaskSort.parse(sort));
 
         LOGGER.info("Tasks returned!");
         return tasks;
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of tasks, ordered by creation time unless sort is given")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Found tasks and cursor of the next page",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskPageDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "422", description = "Limit, cursor, sort or fields invalid",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public TaskPageDTO getTasksPage(
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            @Parameter(description = "Max number of tasks on the page") @RequestParam("limit") int limit,
+            @Parameter(description = "Cursor returned with the previous page")
+            @RequestParam(value = "after", required = false) String after,
+            @Parameter(description = SORT_DESCRIPTION)
+            @RequestParam(value = TaskSort.PARAM, required = false) String sort,
+            @Parameter(description = "Comma separated fields to return, like id,name,author.email")
+            @RequestParam(value = SparseFields.PARAM, required = false) String fields,
+            WebRequest request) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        if (request.checkNotModified(service.findListETag())) {
+            LOGGER.info("Page of tasks not modified");
+            return null;
+        }
+
+        TaskPageDTO page = service.findPage(predicate, limit, after, TaskSort.parse(sort),
+                SparseFields.parse(fields, ResponseTaskDTO.class));
+
+        LOGGER.info("Page of tasks returned!");
+        return page;
+    }
+
+    @GetMapping("/changes")
     @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Get tasks created, updated or deleted since the given change")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changed tasks, ids of deleted tasks and the next since value",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskChangesDTO.class))
+                }
+            )
+    })
+    public TaskChangesDTO getTaskChanges(
+            @Parameter(description = "nextSince of the previous response, omit to get every task")
+            @RequestParam(value = "since", required = false) Long since) {
+        TaskChangesDTO changes = service.findChanges(since);
+
+        LOGGER.info("Task changes since " + since + " returned!");
+        return changes;
+    }
+
+    @GetMapping("/counts")
+    @Operation(summary = "Count tasks by status, executor, label, author and creation day")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Task counts",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskCountsDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            )
+    })
+    public TaskCountsDTO getTaskCounts(
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            WebRequest request) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        if (request.checkNotModified(service.findCountsETag())) {
+            LOGGER.info("Task counts not modified");
+            return null;
+        }
+
+        TaskCountsDTO counts = service.count(predicate);
+
+        LOGGER.info("Task counts returned!");
+        return counts;
+    }
+
+    @GetMapping("/counters")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Get task counters by status, executor and label kept in memory")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Task counters",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskCountersDTO.class))
+                }
+            )
+    })
+    public TaskCountersDTO getTaskCounters() {
+        TaskCountersDTO taskCounters = counters.getCounters();
+
+        LOGGER.info("Task counters returned!");
+        return taskCounters;
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export tasks as NDJSON or CSV")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tasks streamed",
+                content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}
+            ),
+        @ApiResponse(responseCode = "422", description = "Export format not supported",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            @Parameter(description = "Export format: ndjson or csv")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        ExportFormat exportFormat = ExportFormat.of(format);
+
+        StreamingResponseBody body = out -> {
+            service.export(predicate, exportFormat, out);
+            LOGGER.info("Tasks exported as " + exportFormat);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"tasks." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Import tasks from NDJSON or CSV, optionally gzip compressed",
+            description = "Rows have the layout of the export, statuses, executors and labels are given by name "
+                    + "and email. Lines that can not be imported are reported, the others are imported")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Numbers of imported and failed tasks, errors by line",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskImportResultDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "422", description = "Import format or CSV header not supported",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public TaskImportResultDTO importTasks(
+            @Parameter(description = "Import format: ndjson or csv")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        TaskImportResultDTO result = service.importTasks(body, ExportFormat.of(format));
+
+        LOGGER.info(result.getImported() + " tasks are imported, " + result.getFailed() + " failed");
+        return result;
+    }
+
+    @GetMapping("/{id}")
     @Operation(summary = "Get task by ID")
+    @Parameter(name = SparseFields.PARAM, in = ParameterIn.QUERY,
+            description = "Comma separated fields to return, like id,name,author.email")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Task found",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ResponseTaskDTO.class))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
                 content = @Content
             ),
@@ -87,7 +318,13 @@ public class TaskController {
             )
     })
     public ResponseTaskDTO getTask(
-            @Parameter(description = "Task id") @PathVariable("id") Long id) {
+            @Parameter(description = "Task id") @PathVariable("id") Long id,
+            WebRequest request) {
+        if (request.checkNotModified(service.findETag(id))) {
+            LOGGER.info("Task with id=" + id + " not modified");
+            return null;
+        }
+
         ResponseTaskDTO taskDTO = service.findById(id);
 
         LOGGER.info("Task with id=" + id + " returned!");
@@ -118,6 +355,11 @@ public class TaskController {
                         schema = @Schema(implementation = ErrorResponse.class))
                 }
             ),
+        @ApiResponse(responseCode = "409", description = "Request with the same key is in progress",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            ),
         @ApiResponse(responseCode = "422", description = "Task data invalid",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class))
@@ -126,15 +368,143 @@ public class TaskController {
     })
     public ResponseTaskDTO createTask(
             @Parameter(description = "Task data to create") @RequestBody @Valid CreateTaskDTO taskDTO,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            @Parameter(description = "Key of the request, a retry with the same key returns the same task")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         FieldErrorHandler.handleErrors(bindingResult);
 
-        ResponseTaskDTO savedTaskDTO = service.save(taskDTO);
+        ResponseTaskDTO savedTaskDTO = idempotencyStore.execute("tasks", idempotencyKey, taskDTO,
+                () -> service.save(taskDTO), ResponseTaskDTO::getId, service::findById);
 
         LOGGER.info("Task is saved with id=" + savedTaskDTO.getId());
         return savedTaskDTO;
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Create many tasks at once",
+            description = "Valid tasks are created even if others fail, see the status of each item")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Outcome of each task",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = BulkResultDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "403", description = "Permission denied",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            ),
+        @ApiResponse(responseCode = "422", description = "Number of tasks out of range",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public BulkResultDTO createTasks(
+            @Parameter(description = "Tasks to create") @RequestBody List<CreateTaskDTO> taskDTOs) {
+        BulkResultDTO result = service.saveAll(taskDTOs);
+
+        LOGGER.info(result.getSucceeded() + " tasks are saved, " + result.getFailed() + " failed");
+        return result;
+    }
+
+    @PutMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Change status, executor or labels of many tasks at once",
+            description = "Tasks are chosen by ids of the body and filter parameters, like those of the task list")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Number of changed tasks",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = BulkUpdateResultDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "404", description = "Status, executor or label not found",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            ),
+        @ApiResponse(responseCode = "422", description = "No tasks chosen or nothing to change",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public BulkUpdateResultDTO updateTasks(
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            @Parameter(description = "Change to apply") @RequestBody BulkUpdateTaskDTO data) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        BulkUpdateResultDTO result = service.updateAll(predicate, data);
+
+        LOGGER.info(result.getAffected() + " tasks are updated");
+        return result;
+    }
+
+    @PostMapping("/bulk/delete")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Delete many tasks in the background",
+            description = "Tasks are chosen by ids of the body and filter parameters, like those of the task list."
+                    + " Only tasks of the current user are deleted, follow the progress with the returned job id")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Delete job queued",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskDeleteJobDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "422", description = "No tasks chosen",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public TaskDeleteJobDTO deleteTasks(
+            @QuerydslPredicate(root = Task.class) Predicate filter,
+            @Parameter(description = LABELS_ALL_DESCRIPTION)
+            @RequestParam(value = TaskFilterSpec.LABELS_ALL_PARAM, required = false) Set<Long> labelsAllId,
+            @Parameter(description = "Ids of tasks to delete")
+            @RequestBody(required = false) BulkDeleteTaskDTO data) {
+        Predicate predicate = TaskFilterSpec.withAllLabels(filter, labelsAllId);
+        TaskDeleteJobDTO job = service.deleteAll(predicate, data);
+
+        LOGGER.info("Task delete job " + job.getId() + " is started");
+        return job;
+    }
+
+    @GetMapping("/bulk/delete/{id}")
+    @Operation(summary = "Get progress of a bulk delete")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Delete job found",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskDeleteJobDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "404", description = "Delete job of the current user with this id not found",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public TaskDeleteJobDTO getDeleteJob(@Parameter(description = "Delete job id") @PathVariable("id") Long id) {
+        TaskDeleteJobDTO job = service.findDeleteJob(id);
+
+        LOGGER.info("Task delete job " + job.getId() + " is " + job.getStatus());
+        return job;
+    }
+
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Update task")
@@ -158,6 +528,11 @@ public class TaskController {
                         schema = @Schema(implementation = ErrorResponse.class))
                 }
             ),
+        @ApiResponse(responseCode = "412", description = "Task was changed since the version in If-Match",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            ),
         @ApiResponse(responseCode = "422", description = "Label data invalid",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class))
@@ -167,15 +542,101 @@ public class TaskController {
     public ResponseTaskDTO updateTask(
             @Parameter(description = "Task id") @PathVariable("id") Long id,
             @Parameter(description = "Task data to update") @RequestBody @Valid UpdateTaskDTO taskDTO,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            @Parameter(description = "Tag of the task version the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         FieldErrorHandler.handleErrors(bindingResult);
 
-        ResponseTaskDTO updatedTaskDTO = service.update(id, taskDTO);
+        ResponseTaskDTO updatedTaskDTO = service.update(id, taskDTO, ifMatch);
 
         LOGGER.info("Task with id=" + id + " updated!");
         return updatedTaskDTO;
     }
 
+    @GetMapping("/{id}/history")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Get a page of task changes, oldest first",
+            description = "Each change holds the old and new values of the fields it changed, who made it and when")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes and the after value of the next page",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = TaskHistoryPageDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "422", description = "Limit invalid",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public TaskHistoryPageDTO getTaskHistory(
+            @Parameter(description = "Task id") @PathVariable("id") Long id,
+            @Parameter(description = "nextAfter of the previous page, omit to get the first page")
+            @RequestParam(value = "after", required = false) Long after,
+            @Parameter(description = "Max number of changes on the page")
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        TaskHistoryPageDTO history = service.findHistory(id, after, limit);
+
+        LOGGER.info("History of task with id=" + id + " returned!");
+        return history;
+    }
+
+    @PostMapping("/{id}/labels/{labelId}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Add label to task",
+            description = "Other labels of the task are kept, adding a label the task has changes nothing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Task with its labels",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ResponseTaskDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "404", description = "Task or label with this id not found",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public ResponseTaskDTO addTaskLabel(
+            @Parameter(description = "Task id") @PathVariable("id") Long id,
+            @Parameter(description = "Label id") @PathVariable("labelId") Long labelId) {
+        ResponseTaskDTO taskDTO = service.addLabel(id, labelId);
+
+        LOGGER.info("Label with id=" + labelId + " added to task with id=" + id);
+        return taskDTO;
+    }
+
+    @DeleteMapping("/{id}/labels/{labelId}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Remove label from task",
+            description = "Other labels of the task are kept, removing a label the task lacks changes nothing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Task with its labels",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ResponseTaskDTO.class))
+                }
+            ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized user can not do this",
+                content = @Content
+            ),
+        @ApiResponse(responseCode = "404", description = "Task or label with this id not found",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            )
+    })
+    public ResponseTaskDTO removeTaskLabel(
+            @Parameter(description = "Task id") @PathVariable("id") Long id,
+            @Parameter(description = "Label id") @PathVariable("labelId") Long labelId) {
+        ResponseTaskDTO taskDTO = service.removeLabel(id, labelId);
+
+        LOGGER.info("Label with id=" + labelId + " removed from task with id=" + id);
+        return taskDTO;
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Delete task")
@@ -1,6 +1,7 @@
 package hexlet.code.controller;
 
 import com.rollbar.notifier.Rollbar;
+import hexlet.code.component.IdempotencyStore;
 import hexlet.code.dto.ErrorResponse;
 import hexlet.code.dto.user.CreateUserDTO;
 import hexlet.code.dto.user.ResponseUserDTO;
@@ -8,9 +9,11 @@ import hexlet.code.dto.user.UpdateUserDTO;
 import hexlet.code.service.UserService;
 import hexlet.code.handler.FieldErrorHandler;
 
+import hexlet.code.util.SparseFields;
 import hexlet.code.util.exception.EntityDeleteException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -30,12 +33,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindingResult;
 
@@ -52,19 +58,31 @@ public class UserController {
     @Autowired
     private Rollbar rollbar;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(UserController.class);
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get all users")
+    @Parameter(name = SparseFields.PARAM, in = ParameterIn.QUERY,
+            description = "Comma separated fields to return, like id,email")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found users",
                 content = {@Content(mediaType = "application/json",
                         array = @ArraySchema(schema = @Schema(implementation = ResponseUserDTO.class)))
                 }
+            ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
             )
     })
-    public List<ResponseUserDTO> getUsers() {
+    public List<ResponseUserDTO> getUsers(WebRequest request) {
+        if (request.checkNotModified(service.findListETag())) {
+            LOGGER.info("Users not modified");
+            return null;
+        }
+
         List<ResponseUserDTO> users = service.findAll();
 
         LOGGER.info("All users returned!");
@@ -72,14 +90,18 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Get user by ID")
+    @Parameter(name = SparseFields.PARAM, in = ParameterIn.QUERY,
+            description = "Comma separated fields to return, like id,email")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ResponseUserDTO.class))
                 }
             ),
+        @ApiResponse(responseCode = "304", description = "Not modified since the version in If-None-Match",
+                content = @Content
+            ),
         @ApiResponse(responseCode = "404", description = "User with this id not found",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class))
@@ -87,7 +109,13 @@ public class UserController {
             )
     })
     public ResponseUserDTO getUser(
-            @Parameter(description = "User id") @PathVariable("id") Long id) {
+            @Parameter(description = "User id") @PathVariable("id") Long id,
+            WebRequest request) {
+        if (request.checkNotModified(service.findETag(id))) {
+            LOGGER.info("User with id=" + id + " not modified");
+            return null;
+        }
+
         ResponseUserDTO userDTO = service.findById(id);
 
         LOGGER.info("User with id=" + id + " returned!");
@@ -104,7 +132,8 @@ public class UserController {
                         schema = @Schema(implementation = ResponseUserDTO.class))
                 }
             ),
-        @ApiResponse(responseCode = "409", description = "User with this email exists",
+        @ApiResponse(responseCode = "409",
+                description = "User with this email exists or a request with the same key is in progress",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class))
                 }
@@ -117,10 +146,13 @@ public class UserController {
     })
     public ResponseUserDTO createUser(
             @Parameter(description = "User data to create") @RequestBody @Valid CreateUserDTO userDTO,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            @Parameter(description = "Key of the request, a retry with the same key returns the same user")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         FieldErrorHandler.handleErrors(bindingResult);
 
-        ResponseUserDTO savedUserDTO = service.save(userDTO);
+        ResponseUserDTO savedUserDTO = idempotencyStore.execute("users", idempotencyKey, userDTO,
+                () -> service.save(userDTO), ResponseUserDTO::getId, service::findById);
 
         LOGGER.info("User is saved with id=" + savedUserDTO.getId());
         return savedUserDTO;
@@ -154,6 +186,11 @@ public class UserController {
                         schema = @Schema(implementation = ErrorResponse.class))
                 }
             ),
+        @ApiResponse(responseCode = "412", description = "User was changed since the version in If-Match",
+                content = {@Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class))
+                }
+            ),
         @ApiResponse(responseCode = "422", description = "User data invalid",
                 content = {@Content(mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class))
@@ -163,10 +200,12 @@ public class UserController {
     public ResponseUserDTO updateUser(
             @Parameter(description = "User id") @PathVariable("id") Long id,
             @Parameter(description = "User data to update") @RequestBody @Valid UpdateUserDTO userDTO,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            @Parameter(description = "Tag of the user version the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         FieldErrorHandler.handleErrors(bindingResult);
 
-        ResponseUserDTO updatedUserDTO = service.update(id, userDTO);
+        ResponseUserDTO updatedUserDTO = service.update(id, userDTO, ifMatch);
 
         LOGGER.info("User with id=" + id + " updated!");
         return updatedUserDTO;
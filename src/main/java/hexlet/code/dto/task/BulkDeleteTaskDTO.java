@@ -0,0 +1,13 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Set;
+
+@Getter
+@Setter
+public class BulkDeleteTaskDTO {
+    // Chosen tasks, narrowed further by the filter parameters of the request
+    private Set<Long> ids;
+}
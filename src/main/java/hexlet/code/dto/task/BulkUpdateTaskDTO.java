@@ -0,0 +1,21 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.util.Set;
+
+/**
+ * Change applied to every chosen task. Fields left out are kept, executorId set to null unassigns the tasks.
+ */
+@Getter
+@Setter
+public class BulkUpdateTaskDTO {
+    // Chosen tasks, narrowed further by the filter parameters of the request
+    private Set<Long> ids;
+    private JsonNullable<Long> taskStatusId;
+    private JsonNullable<Long> executorId;
+    private Set<Long> addLabelIds;
+    private Set<Long> removeLabelIds;
+}
@@ -3,6 +3,7 @@ package hexlet.code.dto.task;
 import hexlet.code.dto.LabelDTO;
 import hexlet.code.dto.StatusDTO;
 import hexlet.code.dto.user.ResponseUserDTO;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -10,7 +11,10 @@ import java.util.List;
 
 @Getter
 @Setter
+@JsonFilter(ResponseTaskDTO.FILTER)
 public class ResponseTaskDTO {
+    public static final String FILTER = "TaskFields";
+
     private Long id;
     private String name;
     private String description;
@@ -19,4 +23,5 @@ public class ResponseTaskDTO {
     private List<LabelDTO> labels;
     private StatusDTO taskStatus;
     private String createdAt;
+    private Long version;
 }
@@ -0,0 +1,18 @@
+package hexlet.code.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangesDTO {
+    private List<ResponseTaskDTO> upserts;
+    private List<Long> deletes;
+    private long nextSince;
+}
@@ -0,0 +1,17 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+@Setter
+public class TaskCountersDTO {
+    private long total;
+    private long unassigned;
+    private Map<Long, Long> byStatus = new TreeMap<>();
+    private Map<Long, Long> byExecutor = new TreeMap<>();
+    private Map<Long, Long> byLabel = new TreeMap<>();
+}
@@ -0,0 +1,19 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+public class TaskCountsDTO {
+    private long total;
+    private Map<Long, Long> byStatus = new LinkedHashMap<>();
+    private Map<Long, Long> byExecutor = new LinkedHashMap<>();
+    private long unassigned;
+    private Map<Long, Long> byLabel = new LinkedHashMap<>();
+    private Map<Long, Long> byAuthor = new LinkedHashMap<>();
+    private Map<String, Long> createdPerDay = new LinkedHashMap<>();
+}
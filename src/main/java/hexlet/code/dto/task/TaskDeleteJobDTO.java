@@ -0,0 +1,23 @@
+package hexlet.code.dto.task;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a bulk delete. Total counts the chosen tasks of the user, denied the chosen tasks of other authors,
+ * which are never deleted.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TaskDeleteJobDTO {
+    private Long id;
+    private String status;
+    private long total;
+    private long denied;
+    private long deleted;
+    private String createdAt;
+    private String finishedAt;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package hexlet.code.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@JsonPropertyOrder({"id", "name", "description", "taskStatus", "author", "executor", "labels", "createdAt"})
+public class TaskExportRow {
+    private Long id;
+    private String name;
+    private String description;
+    private String taskStatus;
+    private String author;
+    private String executor;
+    private List<String> labels = new ArrayList<>();
+    private String createdAt;
+}
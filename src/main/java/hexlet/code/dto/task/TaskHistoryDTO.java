@@ -0,0 +1,19 @@
+package hexlet.code.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistoryDTO {
+    private Long seq;
+    private Long changedById;
+    private String changedAt;
+    private Map<String, TaskFieldChangeDTO> changes;
+}
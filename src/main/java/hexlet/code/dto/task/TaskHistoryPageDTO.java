@@ -0,0 +1,17 @@
+package hexlet.code.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistoryPageDTO {
+    private List<TaskHistoryDTO> content;
+    private Long nextAfter;
+}
@@ -0,0 +1,21 @@
+package hexlet.code.dto.task;
+
+import hexlet.code.dto.BulkItemResultDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskImportResultDTO {
+    private long imported;
+    private long failed;
+    // Failed lines with index holding the line number, only the first ones are listed
+    private List<BulkItemResultDTO> errors = new ArrayList<>();
+}
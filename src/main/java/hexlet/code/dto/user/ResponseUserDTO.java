@@ -1,14 +1,19 @@
 package hexlet.code.dto.user;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
+@JsonFilter(ResponseUserDTO.FILTER)
 public class ResponseUserDTO {
+    public static final String FILTER = "UserFields";
+
     private Long id;
     private String firstName;
     private String lastName;
     private String email;
     private String createdAt;
+    private Long version;
 }
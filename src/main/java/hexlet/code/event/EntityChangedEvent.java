@@ -0,0 +1,15 @@
+package hexlet.code.event;
+
+import hexlet.code.model.BaseEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published inside the transaction updating or deleting a status, label or user.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityChangedEvent {
+    private Class<? extends BaseEntity> type;
+    private Long id;
+}
@@ -0,0 +1,17 @@
+package hexlet.code.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published by TaskService inside the transaction changing a task.
+ * Before is null for a created task, after is null for a deleted one.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangedEvent {
+    private TaskSnapshot before;
+    private TaskSnapshot after;
+}
@@ -0,0 +1,16 @@
+package hexlet.code.event;
+
+import java.util.List;
+
+/**
+ * Receives task changes from the outbox, after their transactions are committed. Every bean of this type gets
+ * each batch, batches taken by different instances may come in parallel. A batch is given again if any consumer
+ * throws, so consumers have to tolerate repeats, using the message ids for example.
+ */
+public interface TaskEventConsumer {
+
+    /**
+     * @param messages changes ordered by id, not empty
+     */
+    void consume(List<TaskEventMessage> messages);
+}
@@ -0,0 +1,17 @@
+package hexlet.code.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task change read back from the outbox.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskEventMessage {
+    private Long id;
+    private LocalDateTime createdAt;
+    private TaskChangedEvent event;
+}
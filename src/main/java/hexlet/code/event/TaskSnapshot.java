@@ -0,0 +1,35 @@
+package hexlet.code.event;
+
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ids a task refers to at some moment, detached from the persistence context.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSnapshot {
+    private Long id;
+    private Long taskStatusId;
+    private Long authorId;
+    private Long executorId;
+    private Set<Long> labelIds;
+
+    public static TaskSnapshot of(Task task) {
+        Set<Label> labels = task.getLabels() == null ? Set.of() : task.getLabels();
+
+        return new TaskSnapshot(
+                task.getId(),
+                task.getTaskStatus() == null ? null : task.getTaskStatus().getId(),
+                task.getAuthor() == null ? null : task.getAuthor().getId(),
+                task.getExecutor() == null ? null : task.getExecutor().getId(),
+                labels.stream().map(Label::getId).collect(Collectors.toUnmodifiableSet()));
+    }
+}
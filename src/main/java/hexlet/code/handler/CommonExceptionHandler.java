@@ -7,9 +7,12 @@ import hexlet.code.util.exception.EntityExistsException;
 import hexlet.code.util.exception.EntityNotFoundByNameException;
 import hexlet.code.util.exception.EntityNotFoundException;
 import hexlet.code.util.exception.PermissionDeniedException;
+import hexlet.code.util.exception.PreconditionFailedException;
+import hexlet.code.util.exception.RequestInProgressException;
 import lombok.NoArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -93,4 +96,35 @@ public class CommonExceptionHandler extends ResponseEntityExceptionHandler {
         LOGGER.error(e.getMessage());
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleException(PreconditionFailedException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                System.currentTimeMillis());
+
+        LOGGER.error(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleException(RequestInProgressException e) {
+        ErrorResponse response = new ErrorResponse(
+                e.getMessage(),
+                System.currentTimeMillis());
+
+        LOGGER.error(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    // A concurrent request changed the entity after it was read, its version no longer matches on write
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleException(OptimisticLockingFailureException e) {
+        ErrorResponse response = new ErrorResponse(
+                "Entity was changed by another request!",
+                System.currentTimeMillis());
+
+        LOGGER.error(e.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+    }
 }
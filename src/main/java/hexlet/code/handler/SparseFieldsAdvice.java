@@ -0,0 +1,81 @@
+package hexlet.code.handler;
+
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskPageDTO;
+import hexlet.code.dto.user.ResponseUserDTO;
+import hexlet.code.util.SparseFields;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Applies the fields request parameter to task and user responses.
+ */
+@ControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType) && rootType(returnType) != null;
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        SparseFields fields = SparseFields.parse(servletRequest.getParameter(SparseFields.PARAM),
+                rootType(returnType));
+
+        if (fields.isAll()) {
+            return;
+        }
+
+        SimpleFilterProvider filters = new SimpleFilterProvider();
+        if (rootType(returnType) == ResponseTaskDTO.class) {
+            filters.addFilter(ResponseTaskDTO.FILTER, only(fields.topLevel()));
+            filters.addFilter(ResponseUserDTO.FILTER, only(fields.nested("author", "executor")));
+        } else {
+            filters.addFilter(ResponseUserDTO.FILTER, only(fields.getFields()));
+        }
+
+        bodyContainer.setFilters(filters);
+    }
+
+    private static PropertyFilter only(Set<String> fields) {
+        return fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+    }
+
+    // Response DTO the fields refer to, null for responses the parameter does not apply to
+    private static Class<?> rootType(MethodParameter returnType) {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (Collection.class.isAssignableFrom(type.toClass())) {
+            type = type.asCollection().getGeneric(0);
+        }
+
+        Class<?> bodyType = type.toClass();
+        if (bodyType == ResponseTaskDTO.class || bodyType == TaskPageDTO.class) {
+            return ResponseTaskDTO.class;
+        }
+        if (bodyType == ResponseUserDTO.class) {
+            return ResponseUserDTO.class;
+        }
+        return null;
+    }
+}
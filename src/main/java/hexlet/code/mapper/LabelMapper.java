@@ -17,6 +17,7 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 public abstract class LabelMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract Label map(LabelDTO model);
 
     public abstract LabelDTO map(Label model);
@@ -17,6 +17,7 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 public abstract class StatusMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "name", source = "name")
     public abstract Status map(StatusDTO model);
 
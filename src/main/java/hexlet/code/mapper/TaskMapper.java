@@ -19,6 +19,9 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 public abstract class TaskMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
     @Mapping(target = "author", ignore = true)
     @Mapping(target = "executor", ignore = true)
     @Mapping(target = "taskStatus", ignore = true)
@@ -29,6 +32,9 @@ public abstract class TaskMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
     @Mapping(target = "author", ignore = true)
     @Mapping(target = "executor", ignore = true)
     @Mapping(target = "taskStatus", ignore = true)
@@ -0,0 +1,32 @@
+package hexlet.code.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key of a create request, with the hash of its body and the id of the created resource.
+ * The key is kept hashed together with its scope and owner, so all rows have the same small size.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "idempotency_keys")
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements BaseEntity {
+    @Id
+    private String keyHash;
+
+    private String requestHash;
+
+    private Long resourceId;
+
+    private LocalDateTime createdAt;
+}
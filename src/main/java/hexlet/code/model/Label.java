@@ -5,6 +5,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,6 +31,9 @@ public class Label implements BaseEntity {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     public Label(String name) {
         this.name = name;
     }
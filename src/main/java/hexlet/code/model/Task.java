@@ -1,17 +1,24 @@
 package hexlet.code.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -20,12 +27,40 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tasks")
+@NamedEntityGraph(name = Task.GRAPH_REFERENCES, attributeNodes = {
+    @NamedAttributeNode("author"),
+    @NamedAttributeNode("executor"),
+    @NamedAttributeNode("taskStatus")
+})
+@NamedEntityGraph(name = Task.GRAPH_DETAILS, attributeNodes = {
+    @NamedAttributeNode("author"),
+    @NamedAttributeNode("executor"),
+    @NamedAttributeNode("taskStatus"),
+    @NamedAttributeNode("labels")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Task implements BaseEntity {
+    /**
+     * Fetch plan with author, executor and status; labels are loaded in batches.
+     */
+    public static final String GRAPH_REFERENCES = "Task.references";
+
+    /**
+     * Fetch plan with every association needed to build a task response.
+     */
+    public static final String GRAPH_DETAILS = "Task.details";
+
+    /**
+     * Pool size of ids taken from tasks_seq at once, the sequence is incremented by it.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Unlike IDENTITY, a sequence gives ids before the insert, so inserts of many tasks are sent in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Name cannot be empty")
@@ -34,21 +69,33 @@ public class Task implements BaseEntity {
 
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "executor_id", nullable = true)
     private User executor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "taskStatus_id", nullable = false)
     private Status taskStatus;
 
     @ManyToMany
+    @BatchSize(size = 100)
     private Set<Label> labels;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    /**
+     * Change sequence value given at commit to the transaction that changed the task last, see ChangeSequence.
+     */
+    private long changeSeq;
+
+    @Version
+    private Long version;
 }
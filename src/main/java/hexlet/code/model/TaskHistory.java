@@ -0,0 +1,51 @@
+package hexlet.code.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Fields of a task changed by one update, as JSON of field name to its old and new values.
+ * Seq is the version of the task the update made, rows are kept after the task is deleted.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "task_history")
+@IdClass(TaskHistory.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskHistory implements BaseEntity {
+    @Id
+    private Long taskId;
+
+    @Id
+    private Long seq;
+
+    private Long changedById;
+
+    private LocalDateTime changedAt;
+
+    private String changes;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long taskId;
+        private Long seq;
+    }
+}
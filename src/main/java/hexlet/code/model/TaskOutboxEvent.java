@@ -0,0 +1,51 @@
+package hexlet.code.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change of a task written in the transaction making it and removed once handed to the consumers.
+ * The payload is the TaskChangedEvent as JSON.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "task_outbox")
+@NoArgsConstructor
+public class TaskOutboxEvent implements BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_seq")
+    @SequenceGenerator(name = "task_outbox_seq", sequenceName = "task_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private Long taskId;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public TaskOutboxEvent(Long taskId, Type type, String payload) {
+        this.taskId = taskId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package hexlet.code.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remembers a deleted task, so clients syncing changes learn about the deletion.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "task_tombstones")
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskTombstone implements BaseEntity {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    private long changeSeq;
+
+    @CreationTimestamp
+    private LocalDateTime deletedAt;
+
+    public TaskTombstone(Long taskId, long changeSeq) {
+        this.taskId = taskId;
+        this.changeSeq = changeSeq;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -46,4 +47,7 @@ public class User implements BaseEntity {
 
     @CreationTimestamp
     private LocalDateTime createdAt;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,22 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // A plain insert, a key stored meanwhile by another instance fails it on the primary key
+    @Modifying
+    @Query(value = "insert into idempotency_keys (key_hash, request_hash, resource_id, created_at) "
+            + "values (:#{#record.keyHash}, :#{#record.requestHash}, :#{#record.resourceId}, :#{#record.createdAt})",
+            nativeQuery = true)
+    void insert(IdempotencyRecord record);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(LocalDateTime before);
+}
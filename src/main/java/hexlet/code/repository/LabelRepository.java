@@ -1,10 +1,19 @@
 package hexlet.code.repository;
 
 import hexlet.code.model.Label;
+import hexlet.code.util.ChangeStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface LabelRepository extends JpaRepository<Label, Long> {
     Optional<Label> findByName(String name);
+
+    @Query("select l.version from Label l where l.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select new hexlet.code.util.ChangeStamp(count(l), coalesce(sum(l.version), 0L), "
+            + "coalesce(max(l.id), 0L)) from Label l")
+    ChangeStamp findChangeStamp();
 }
@@ -1,10 +1,19 @@
 package hexlet.code.repository;
 
 import hexlet.code.model.Status;
+import hexlet.code.util.ChangeStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface StatusRepository extends JpaRepository<Status, Long> {
     Optional<Status> findByName(String name);
+
+    @Query("select s.version from Status s where s.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select new hexlet.code.util.ChangeStamp(count(s), coalesce(sum(s.version), 0L), "
+            + "coalesce(max(s.id), 0L)) from Status s")
+    ChangeStamp findChangeStamp();
 }
@@ -0,0 +1,23 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.TaskHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TaskHistoryRepository extends JpaRepository<TaskHistory, TaskHistory.Key> {
+
+    // Rows are only appended, a plain insert skips the select save would run for an entity with its id set
+    @Modifying
+    @Query(value = "insert into task_history (task_id, seq, changed_by_id, changed_at, changes) "
+            + "values (:#{#row.taskId}, :#{#row.seq}, :#{#row.changedById}, :#{#row.changedAt}, :#{#row.changes})",
+            nativeQuery = true)
+    void insert(TaskHistory row);
+
+    // Reads the primary key (task_id, seq) index from the position after the previous page
+    @Query("select h from TaskHistory h where h.taskId = :taskId and h.seq > :after order by h.seq")
+    List<TaskHistory> findPage(Long taskId, long after, Pageable limit);
+}
@@ -0,0 +1,30 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.TaskOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskOutboxRepository extends JpaRepository<TaskOutboxEvent, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED: rows claimed by another drainer are passed over instead of waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from TaskOutboxEvent e order by e.id")
+    List<TaskOutboxEvent> claim(Pageable batch);
+
+    @Modifying
+    @Query("delete from TaskOutboxEvent e where e.id in :ids")
+    int deleteByIds(List<Long> ids);
+
+    @Query("select min(e.createdAt) from TaskOutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
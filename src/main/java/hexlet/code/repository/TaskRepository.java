@@ -1,13 +1,47 @@
 package hexlet.code.repository;
 
+import com.querydsl.core.types.Predicate;
+import hexlet.code.model.QTask;
 import hexlet.code.model.Task;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
 
 import java.util.Optional;
 
 public interface TaskRepository extends JpaRepository<Task, Long>,
-        QuerydslPredicateExecutor<Task> {
+        QuerydslPredicateExecutor<Task>, QuerydslBinderCustomizer<QTask>, TaskRepositoryCustom {
 
+    /**
+     * Filters of GET /api/tasks: taskStatus, authorId and executorId take several ids compared with IN on the
+     * foreign key, labelsId keeps tasks having any of the labels. labelsAllId, tasks having every one of them,
+     * is bound by the controller with TaskFilterSpec.withAllLabels. Label conditions are EXISTS subqueries
+     * on tasks_labels, so tasks are not multiplied by their labels.
+     */
+    @Override
+    default void customize(QuerydslBindings bindings, QTask root) {
+        bindings.bind(root.taskStatus.id).as("taskStatus").all((path, ids) -> Optional.of(path.in(ids)));
+        bindings.bind(root.author.id).all((path, ids) -> Optional.of(path.in(ids)));
+        bindings.bind(root.executor.id).all((path, ids) -> Optional.of(path.in(ids)));
+        bindings.bind(root.labels.any().id).all((path, ids) -> Optional.of(path.in(ids)));
+    }
+
+    @EntityGraph(Task.GRAPH_DETAILS)
     Optional<Task> findByName(String name);
+
+    @Override
+    @EntityGraph(Task.GRAPH_DETAILS)
+    Iterable<Task> findAll(Predicate predicate);
+
+    @EntityGraph(Task.GRAPH_DETAILS)
+    Optional<Task> findDetailedById(Long id);
+
+    @EntityGraph(Task.GRAPH_REFERENCES)
+    Optional<Task> findForUpdateById(Long id);
+
+    @Query("select coalesce(max(t.changeSeq), 0L) from Task t")
+    long findMaxChangeSeq();
 }
@@ -0,0 +1,134 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskCountsDTO;
+import hexlet.code.dto.task.TaskExportRow;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.Task;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskCursor;
+import hexlet.code.util.TaskSort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Projects tasks matching the predicate straight into response rows, without loading entities.
+     * Author, executor, status and labels are only joined and read when requested.
+     * @param predicate filter built from request parameters, may be null
+     * @param fields fields of the response to fill
+     * @param limit max number of rows, 0 for no limit
+     * @param order ordering of the rows
+     * @return task rows with author, executor, status and labels
+     */
+    List<ResponseTaskDTO> findRows(Predicate predicate, SparseFields fields, long limit, OrderSpecifier<?>... order);
+
+    /**
+     * Projects the tasks with the given ids, fetching them in chunks. The predicate is checked again,
+     * so ids of tasks that stopped matching it are dropped.
+     * @param ids ids of the tasks in ascending order
+     * @param predicate filter built from request parameters, may be null
+     * @param fields fields of the response to fill
+     * @return task rows ordered by id
+     */
+    List<ResponseTaskDTO> findRowsByIds(List<Long> ids, Predicate predicate, SparseFields fields);
+
+    /**
+     * Returns tasks matching the predicate in the given order, starting right after the given position.
+     * @param predicate filter built from request parameters, may be null
+     * @param sort order of the tasks
+     * @param after position of the last task of the previous page, null for the first page
+     * @param fields fields of the response to fill
+     * @param limit max number of tasks to return
+     * @return task rows of the page
+     */
+    List<ResponseTaskDTO> findPage(Predicate predicate, TaskSort sort, TaskCursor after, SparseFields fields,
+                                   long limit);
+
+    /**
+     * Streams export rows ordered by task id, fetching them from the database in chunks.
+     * A task with several labels comes as consecutive rows holding one label each.
+     * The stream has to be consumed and closed inside a transaction.
+     * @param predicate filter built from request parameters, may be null
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     * @return export rows
+     */
+    Stream<TaskExportRow> streamExportRows(Predicate predicate, int fetchSize);
+
+    /**
+     * Counts tasks matching the predicate grouped by status, executor, label, author and day of creation.
+     * Every grouping is a single GROUP BY query, tasks themselves are not loaded.
+     * @param predicate filter built from request parameters, may be null
+     * @return counts keyed by ids of the related entities and by ISO date
+     */
+    TaskCountsDTO countTasks(Predicate predicate);
+
+    /**
+     * Reads the version of the task together with the sum of versions of its author, executor, status
+     * and labels, which covers every entity embedded into the task response.
+     * @param id task id
+     * @return tag made by ETags.of(version, related), empty if there is no such task
+     */
+    Optional<String> findVersionTag(Long id);
+
+    /**
+     * Streams ids of every task with its status, author, executor and labels.
+     * A task with several labels comes as several snapshots holding one label each.
+     * The stream has to be consumed and closed inside a transaction.
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     * @return task snapshots
+     */
+    Stream<TaskSnapshot> streamSnapshots(int fetchSize);
+
+    /**
+     * Inserts new tasks with their labels. Rows go to the database in JDBC batches, and the persistence context
+     * is cleared every flushSize tasks, so entities loaded before the call are detached afterwards.
+     * @param tasks new tasks referencing existing users, statuses and labels
+     * @param flushSize number of tasks kept in the persistence context between flushes
+     */
+    void insertAll(List<Task> tasks, int flushSize);
+
+    /**
+     * @param predicate filter, may be null
+     * @return snapshot of every task matching the predicate, ordered by id
+     */
+    List<TaskSnapshot> findSnapshots(Predicate predicate);
+
+    /**
+     * Changes the given tasks with a few UPDATE, DELETE and INSERT statements per chunk of ids, bumping their
+     * version and change sequence value. The persistence context is cleared, as loaded tasks may be stale.
+     * @param ids ids of the tasks to change
+     * @param statusId new status id, null to keep the status
+     * @param changeExecutor true to set the executor
+     * @param executorId new executor id, null to unassign
+     * @param addLabelIds labels to add, may be empty
+     * @param removeLabelIds labels to remove, may be empty
+     * @param changeSeq change sequence value of the transaction
+     */
+    void updateAll(List<Long> ids, Long statusId, boolean changeExecutor, Long executorId, Set<Long> addLabelIds,
+                   Set<Long> removeLabelIds, long changeSeq);
+
+    /**
+     * Reads the next ids to delete and locks their rows until the end of the transaction.
+     * @param predicate filter, may be null
+     * @param limit maximum number of ids
+     * @return ids of tasks matching the predicate, ordered by id
+     */
+    List<Long> lockIds(Predicate predicate, int limit);
+
+    /**
+     * Deletes the given tasks of the author together with their label links and leaves a tombstone for each.
+     * Tasks of other authors among the ids are kept, the check is part of the statements.
+     * @param ids ids of the tasks to delete
+     * @param authorId id of the user the tasks must belong to
+     * @param changeSeq change sequence value of the transaction
+     * @return number of deleted tasks
+     */
+    int deleteOwned(List<Long> ids, Long authorId, long changeSeq);
+}
@@ -0,0 +1,464 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.DateExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import hexlet.code.dto.LabelDTO;
+import hexlet.code.dto.StatusDTO;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskCountsDTO;
+import hexlet.code.dto.task.TaskExportRow;
+import hexlet.code.dto.user.ResponseUserDTO;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.QLabel;
+import hexlet.code.model.QStatus;
+import hexlet.code.model.QTask;
+import hexlet.code.model.QUser;
+import hexlet.code.model.Status;
+import hexlet.code.model.Task;
+import hexlet.code.model.User;
+import hexlet.code.util.ETags;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskCursor;
+import hexlet.code.util.TaskSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    private static final QTask TASK = QTask.task;
+    private static final QUser AUTHOR = new QUser("author");
+    private static final QUser EXECUTOR = new QUser("executor");
+    private static final QStatus STATUS = new QStatus("taskStatus");
+    private static final QLabel LABEL = new QLabel("label");
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ResponseTaskDTO> findRows(Predicate predicate, SparseFields fields, long limit,
+                                          OrderSpecifier<?>... order) {
+        boolean withAuthor = fields.includes("author");
+        boolean withExecutor = fields.includes("executor");
+        boolean withStatus = fields.includes("taskStatus");
+
+        // id and createdAt are always read, pages need them for the cursor
+        List<Expression<?>> columns = new ArrayList<>(List.of(TASK.id, TASK.name, TASK.description, TASK.createdAt,
+                TASK.version));
+        if (withAuthor) {
+            columns.addAll(List.of(AUTHOR.id, AUTHOR.firstName, AUTHOR.lastName, AUTHOR.email, AUTHOR.createdAt,
+                    AUTHOR.version));
+        }
+        if (withExecutor) {
+            columns.addAll(List.of(EXECUTOR.id, EXECUTOR.firstName, EXECUTOR.lastName, EXECUTOR.email,
+                    EXECUTOR.createdAt, EXECUTOR.version));
+        }
+        if (withStatus) {
+            columns.addAll(List.of(STATUS.id, STATUS.name, STATUS.createdAt));
+        }
+
+        JPAQuery<Tuple> query = queryFactory()
+                .select(columns.toArray(new Expression<?>[0]))
+                .from(TASK);
+
+        if (withAuthor) {
+            query.join(TASK.author, AUTHOR);
+        }
+        if (withExecutor) {
+            query.leftJoin(TASK.executor, EXECUTOR);
+        }
+        if (withStatus) {
+            query.join(TASK.taskStatus, STATUS);
+        }
+
+        query.where(predicate).orderBy(order);
+        if (limit > 0) {
+            query.limit(limit);
+        }
+
+        List<ResponseTaskDTO> tasks = new ArrayList<>();
+        Map<Long, ResponseTaskDTO> tasksById = new HashMap<>();
+        for (Tuple row : query.fetch()) {
+            ResponseTaskDTO task = toTask(row, withAuthor, withExecutor, withStatus);
+            tasks.add(task);
+            tasksById.put(task.getId(), task);
+        }
+
+        if (fields.includes("labels")) {
+            fillLabels(tasksById);
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<ResponseTaskDTO> findRowsByIds(List<Long> ids, Predicate predicate, SparseFields fields) {
+        List<ResponseTaskDTO> tasks = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            tasks.addAll(findRows(new BooleanBuilder(TASK.id.in(chunk)).and(predicate), fields, 0, TASK.id.asc()));
+        }
+
+        return tasks;
+    }
+
+    @Override
+    public List<ResponseTaskDTO> findPage(Predicate predicate, TaskSort sort, TaskCursor after, SparseFields fields,
+                                          long limit) {
+        BooleanBuilder where = new BooleanBuilder(predicate);
+
+        if (after != null) {
+            where.and(sort.after(after));
+        }
+
+        return findRows(where, fields, limit, sort.toOrder());
+    }
+
+    @Override
+    public Stream<TaskExportRow> streamExportRows(Predicate predicate, int fetchSize) {
+        return queryFactory()
+                .select(TASK.id, TASK.name, TASK.description, STATUS.name, AUTHOR.email, EXECUTOR.email,
+                        TASK.createdAt, LABEL.name)
+                .from(TASK)
+                .join(TASK.author, AUTHOR)
+                .leftJoin(TASK.executor, EXECUTOR)
+                .join(TASK.taskStatus, STATUS)
+                .leftJoin(TASK.labels, LABEL)
+                .where(predicate)
+                .orderBy(TASK.id.asc(), LABEL.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()
+                .map(TaskRepositoryCustomImpl::toExportRow);
+    }
+
+    @Override
+    public TaskCountsDTO countTasks(Predicate predicate) {
+        TaskCountsDTO counts = new TaskCountsDTO();
+        NumberExpression<Long> count = TASK.id.count();
+
+        // Grouping by the foreign key columns keeps these queries on the tasks table alone
+        for (Tuple row : groupBy(predicate, TASK.taskStatus.id, count)) {
+            counts.getByStatus().put(row.get(TASK.taskStatus.id), row.get(count));
+            counts.setTotal(counts.getTotal() + row.get(count));
+        }
+
+        for (Tuple row : groupBy(predicate, TASK.executor.id, count)) {
+            Long executorId = row.get(TASK.executor.id);
+            if (executorId == null) {
+                counts.setUnassigned(row.get(count));
+            } else {
+                counts.getByExecutor().put(executorId, row.get(count));
+            }
+        }
+
+        for (Tuple row : groupBy(predicate, TASK.author.id, count)) {
+            counts.getByAuthor().put(row.get(TASK.author.id), row.get(count));
+        }
+
+        List<Tuple> labelRows = queryFactory()
+                .select(LABEL.id, count)
+                .from(TASK)
+                .join(TASK.labels, LABEL)
+                .where(predicate)
+                .groupBy(LABEL.id)
+                .orderBy(LABEL.id.asc())
+                .fetch();
+        for (Tuple row : labelRows) {
+            counts.getByLabel().put(row.get(LABEL.id), row.get(count));
+        }
+
+        DateExpression<LocalDate> day = Expressions.dateTemplate(LocalDate.class, "cast({0} as LocalDate)",
+                TASK.createdAt);
+        for (Tuple row : groupBy(predicate, day, count)) {
+            counts.getCreatedPerDay().put(row.get(day).toString(), row.get(count));
+        }
+
+        return counts;
+    }
+
+    @Override
+    public Optional<String> findVersionTag(Long id) {
+        NumberExpression<Long> labelVersions = LABEL.version.sum().coalesce(0L);
+        NumberExpression<Long> executorVersion = EXECUTOR.version.coalesce(0L);
+
+        Tuple row = queryFactory()
+                .select(TASK.version, AUTHOR.version, executorVersion, STATUS.version, labelVersions)
+                .from(TASK)
+                .join(TASK.author, AUTHOR)
+                .join(TASK.taskStatus, STATUS)
+                .leftJoin(TASK.executor, EXECUTOR)
+                .leftJoin(TASK.labels, LABEL)
+                .where(TASK.id.eq(id))
+                .groupBy(TASK.version, AUTHOR.version, EXECUTOR.version, STATUS.version)
+                .fetchOne();
+
+        if (row == null) {
+            return Optional.empty();
+        }
+
+        long related = row.get(AUTHOR.version) + row.get(executorVersion) + row.get(STATUS.version)
+                + row.get(labelVersions);
+        return Optional.of(ETags.of(row.get(TASK.version), related));
+    }
+
+    private List<Tuple> groupBy(Predicate predicate, ComparableExpressionBase<?> key,
+                                NumberExpression<Long> count) {
+        return queryFactory()
+                .select(key, count)
+                .from(TASK)
+                .where(predicate)
+                .groupBy(key)
+                .orderBy(key.asc())
+                .fetch();
+    }
+
+    @Override
+    public Stream<TaskSnapshot> streamSnapshots(int fetchSize) {
+        return queryFactory()
+                .select(TASK.id, TASK.taskStatus.id, TASK.author.id, TASK.executor.id, LABEL.id)
+                .from(TASK)
+                .leftJoin(TASK.labels, LABEL)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()
+                .map(row -> new TaskSnapshot(row.get(TASK.id), row.get(TASK.taskStatus.id), row.get(TASK.author.id),
+                        row.get(TASK.executor.id),
+                        row.get(LABEL.id) == null ? Set.of() : Set.of(row.get(LABEL.id))));
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks, int flushSize) {
+        for (int i = 0; i < tasks.size(); i++) {
+            entityManager.persist(tasks.get(i));
+            if ((i + 1) % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<TaskSnapshot> findSnapshots(Predicate predicate) {
+        List<Tuple> rows = queryFactory()
+                .select(TASK.id, TASK.taskStatus.id, TASK.author.id, TASK.executor.id, LABEL.id)
+                .from(TASK)
+                .leftJoin(TASK.labels, LABEL)
+                .where(predicate)
+                .orderBy(TASK.id.asc())
+                .fetch();
+
+        Map<Long, TaskSnapshot> snapshots = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            TaskSnapshot snapshot = snapshots.computeIfAbsent(row.get(TASK.id), id -> new TaskSnapshot(id,
+                    row.get(TASK.taskStatus.id), row.get(TASK.author.id), row.get(TASK.executor.id), new HashSet<>()));
+            if (row.get(LABEL.id) != null) {
+                snapshot.getLabelIds().add(row.get(LABEL.id));
+            }
+        }
+        return new ArrayList<>(snapshots.values());
+    }
+
+    @Override
+    public void updateAll(List<Long> ids, Long statusId, boolean changeExecutor, Long executorId,
+                          Set<Long> addLabelIds, Set<Long> removeLabelIds, long changeSeq) {
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+
+            JPAUpdateClause update = queryFactory().update(TASK)
+                    .set(TASK.version, TASK.version.add(1))
+                    .set(TASK.changeSeq, changeSeq)
+                    .set(TASK.updatedAt, now)
+                    .where(TASK.id.in(chunk));
+            if (statusId != null) {
+                update.set(TASK.taskStatus, entityManager.getReference(Status.class, statusId));
+            }
+            if (changeExecutor && executorId == null) {
+                update.setNull(TASK.executor);
+            } else if (changeExecutor) {
+                update.set(TASK.executor, entityManager.getReference(User.class, executorId));
+            }
+            update.execute();
+
+            // tasks_labels has no entity of its own, so its rows are changed with SQL
+            if (!removeLabelIds.isEmpty()) {
+                entityManager.createNativeQuery("delete from tasks_labels where task_id in (:ids)"
+                                + " and labels_id in (:labels)")
+                        .setParameter("ids", chunk)
+                        .setParameter("labels", removeLabelIds)
+                        .executeUpdate();
+            }
+            if (!addLabelIds.isEmpty()) {
+                entityManager.createNativeQuery("insert into tasks_labels (task_id, labels_id)"
+                                + " select t.id, l.id from tasks t cross join labels l"
+                                + " where t.id in (:ids) and l.id in (:labels) and not exists (select 1"
+                                + " from tasks_labels tl where tl.task_id = t.id and tl.labels_id = l.id)")
+                        .setParameter("ids", chunk)
+                        .setParameter("labels", addLabelIds)
+                        .executeUpdate();
+            }
+        }
+
+        entityManager.clear();
+    }
+
+    @Override
+    public List<Long> lockIds(Predicate predicate, int limit) {
+        return queryFactory()
+                .select(TASK.id)
+                .from(TASK)
+                .where(predicate)
+                .orderBy(TASK.id.asc())
+                .limit(limit)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .fetch();
+    }
+
+    @Override
+    public int deleteOwned(List<Long> ids, Long authorId, long changeSeq) {
+        entityManager.flush();
+
+        // Every statement repeats the author condition, a task handed over meanwhile is kept
+        String owned = "select id from tasks where id in (:ids) and author_id = :author";
+        entityManager.createNativeQuery("insert into task_tombstones (task_id, change_seq, deleted_at)"
+                        + " select id, :seq, :now from tasks where id in (:ids) and author_id = :author")
+                .setParameter("ids", ids)
+                .setParameter("author", authorId)
+                .setParameter("seq", changeSeq)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from tasks_labels where task_id in (" + owned + ")")
+                .setParameter("ids", ids)
+                .setParameter("author", authorId)
+                .executeUpdate();
+        int deleted = entityManager.createNativeQuery("delete from tasks where id in (:ids) and author_id = :author")
+                .setParameter("ids", ids)
+                .setParameter("author", authorId)
+                .executeUpdate();
+
+        entityManager.clear();
+        return deleted;
+    }
+
+    private void fillLabels(Map<Long, ResponseTaskDTO> tasksById) {
+        List<Long> ids = new ArrayList<>(tasksById.keySet());
+
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            List<Tuple> rows = queryFactory()
+                    .select(TASK.id, LABEL.id, LABEL.name, LABEL.createdAt)
+                    .from(TASK)
+                    .join(TASK.labels, LABEL)
+                    .where(TASK.id.in(chunk))
+                    .orderBy(LABEL.id.asc())
+                    .fetch();
+
+            for (Tuple row : rows) {
+                LabelDTO label = new LabelDTO(row.get(LABEL.name));
+                label.setId(row.get(LABEL.id));
+                label.setCreatedAt(format(row.get(LABEL.createdAt)));
+                tasksById.get(row.get(TASK.id)).getLabels().add(label);
+            }
+        }
+    }
+
+    private static ResponseTaskDTO toTask(Tuple row, boolean withAuthor, boolean withExecutor,
+                                          boolean withStatus) {
+        ResponseTaskDTO task = new ResponseTaskDTO();
+        task.setId(row.get(TASK.id));
+        task.setName(row.get(TASK.name));
+        task.setDescription(row.get(TASK.description));
+        task.setCreatedAt(format(row.get(TASK.createdAt)));
+        task.setVersion(row.get(TASK.version));
+        task.setLabels(new ArrayList<>());
+
+        if (withAuthor) {
+            task.setAuthor(toUser(row, AUTHOR));
+        }
+        if (withExecutor) {
+            task.setExecutor(toUser(row, EXECUTOR));
+        }
+        if (withStatus) {
+            StatusDTO status = new StatusDTO(row.get(STATUS.name));
+            status.setId(row.get(STATUS.id));
+            status.setCreatedAt(format(row.get(STATUS.createdAt)));
+            task.setTaskStatus(status);
+        }
+
+        return task;
+    }
+
+    private static TaskExportRow toExportRow(Tuple row) {
+        TaskExportRow exportRow = new TaskExportRow();
+        exportRow.setId(row.get(TASK.id));
+        exportRow.setName(row.get(TASK.name));
+        exportRow.setDescription(row.get(TASK.description));
+        exportRow.setTaskStatus(row.get(STATUS.name));
+        exportRow.setAuthor(row.get(AUTHOR.email));
+        exportRow.setExecutor(row.get(EXECUTOR.email));
+        exportRow.setCreatedAt(format(row.get(TASK.createdAt)));
+
+        String label = row.get(LABEL.name);
+        if (label != null) {
+            exportRow.getLabels().add(label);
+        }
+
+        return exportRow;
+    }
+
+    private static ResponseUserDTO toUser(Tuple row, QUser user) {
+        Long id = row.get(user.id);
+        if (id == null) {
+            return null;
+        }
+
+        ResponseUserDTO userDTO = new ResponseUserDTO();
+        userDTO.setId(id);
+        userDTO.setFirstName(row.get(user.firstName));
+        userDTO.setLastName(row.get(user.lastName));
+        userDTO.setEmail(row.get(user.email));
+        userDTO.setCreatedAt(format(row.get(user.createdAt)));
+        userDTO.setVersion(row.get(user.version));
+        return userDTO;
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+    }
+
+    private JPAQueryFactory queryFactory() {
+        return new JPAQueryFactory(JPQLTemplates.DEFAULT, entityManager);
+    }
+}
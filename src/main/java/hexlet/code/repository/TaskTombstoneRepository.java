@@ -0,0 +1,17 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    @Query("select t.taskId from TaskTombstone t where t.changeSeq > :since and t.changeSeq <= :until "
+            + "order by t.changeSeq, t.taskId")
+    List<Long> findTaskIds(long since, long until);
+
+    @Query("select coalesce(max(t.changeSeq), 0L) from TaskTombstone t")
+    long findMaxChangeSeq();
+}
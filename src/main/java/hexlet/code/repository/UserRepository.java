@@ -1,11 +1,20 @@
 package hexlet.code.repository;
 
 import hexlet.code.model.User;
+import hexlet.code.util.ChangeStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select new hexlet.code.util.ChangeStamp(count(u), coalesce(sum(u.version), 0L), "
+            + "coalesce(max(u.id), 0L)) from User u")
+    ChangeStamp findChangeStamp();
 }
@@ -1,21 +1,42 @@
 package hexlet.code.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import hexlet.code.dto.AuthDTO;
+import hexlet.code.event.EntityChangedEvent;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.security.JWTUtils;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
 
 @Service
 public class AuthService {
+    private static final String CURRENT_USER = AuthService.class.getName() + ".currentUser";
+
     private final AuthenticationManager authenticationManager;
     private final JWTUtils jwtUtils;
     private UserRepository userRepository;
 
+    @Value("${auth-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${auth-cache.expire-after-write:PT10M}")
+    private Duration expireAfterWrite;
+
+    // Ids of users by email, dropped once a change or deletion of the user is committed
+    private Cache<String, Long> userIds;
+
     @Autowired
     public AuthService(AuthenticationManager authenticationManager, JWTUtils jwtUtils, UserRepository userRepository) {
         this.authenticationManager = authenticationManager;
@@ -23,6 +44,14 @@ public class AuthService {
         this.userRepository = userRepository;
     }
 
+    @PostConstruct
+    public void init() {
+        userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
     public void authenticate(AuthDTO dto) {
         var auth = new UsernamePasswordAuthenticationToken(
                 dto.getEmail(),
@@ -36,18 +65,47 @@ public class AuthService {
     }
 
     public boolean hasPermissions(User user) {
-        return getCurrentUser().equals(user);
+        User currentUser = getCurrentUser();
+        return currentUser != null && currentUser.getId().equals(user.getId());
     }
     public boolean isAuthenticated() {
         return getCurrentUser() != null;
     }
 
+    /**
+     * Resolved once per request. Users seen by earlier requests are given as references by the cached id,
+     * without a query until a field besides the id is read.
+     */
     public User getCurrentUser() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
         }
         var email = authentication.getName();
-        return userRepository.findByEmail(email).orElse(null);
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        String attribute = CURRENT_USER + ":" + email;
+        if (request != null && request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) instanceof User user) {
+            return user;
+        }
+
+        Long id = userIds.getIfPresent(email);
+        User user = id != null ? userRepository.getReferenceById(id) : userRepository.findByEmail(email).orElse(null);
+        if (user != null && id == null) {
+            userIds.put(email, user.getId());
+        }
+
+        if (request != null && user != null) {
+            request.setAttribute(attribute, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    // The email of a changed user may be another one now, a deleted user must not be resolved any more
+    @TransactionalEventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (User.class.equals(event.getType())) {
+            userIds.asMap().values().removeIf(event.getId()::equals);
+        }
     }
 }
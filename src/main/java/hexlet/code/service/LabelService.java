@@ -1,14 +1,17 @@
 package hexlet.code.service;
 
 import hexlet.code.dto.LabelDTO;
+import hexlet.code.event.EntityChangedEvent;
 import hexlet.code.mapper.LabelMapperImpl;
 import hexlet.code.model.Label;
 import hexlet.code.repository.LabelRepository;
+import hexlet.code.util.ETags;
 import hexlet.code.util.exception.EntityExistsException;
 import hexlet.code.util.exception.EntityNotFoundByNameException;
 import hexlet.code.util.exception.EntityNotFoundException;
 import hexlet.code.util.exception.PermissionDeniedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,9 @@ public class LabelService {
     @Autowired
     private LabelMapperImpl mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final String entityName = "Label";
 
     @Transactional
@@ -63,6 +69,17 @@ public class LabelService {
         return labelsDTO;
     }
 
+    public String findListETag() {
+        return ETags.of(labelRepository.findChangeStamp());
+    }
+
+    public String findETag(Long id) {
+        Long version = labelRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+
+        return ETags.of(version);
+    }
+
     public LabelDTO findById(Long id) {
         Label label = labelRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
@@ -94,6 +111,7 @@ public class LabelService {
         }
 
         mapper.update(data, label);
+        eventPublisher.publishEvent(new EntityChangedEvent(Label.class, id));
         Label updatedLabel = labelRepository.findById(id).get();
 
         return mapper.map(updatedLabel);
@@ -109,6 +127,7 @@ public class LabelService {
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
 
         labelRepository.delete(label);
+        eventPublisher.publishEvent(new EntityChangedEvent(Label.class, id));
     }
 
 }
@@ -1,14 +1,17 @@
 package hexlet.code.service;
 
 import hexlet.code.dto.StatusDTO;
+import hexlet.code.event.EntityChangedEvent;
 import hexlet.code.mapper.StatusMapperImpl;
 import hexlet.code.model.Status;
 import hexlet.code.repository.StatusRepository;
+import hexlet.code.util.ETags;
 import hexlet.code.util.exception.PermissionDeniedException;
 import hexlet.code.util.exception.EntityExistsException;
 import hexlet.code.util.exception.EntityNotFoundByNameException;
 import hexlet.code.util.exception.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,9 @@ public class StatusService {
     @Autowired
     private StatusMapperImpl mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final String entityName = "Status";
 
     @Transactional
@@ -63,6 +69,17 @@ public class StatusService {
         return statusesDTO;
     }
 
+    public String findListETag() {
+        return ETags.of(statusRepository.findChangeStamp());
+    }
+
+    public String findETag(Long id) {
+        Long version = statusRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+
+        return ETags.of(version);
+    }
+
     public StatusDTO findById(Long id) {
         Status status = statusRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
@@ -94,6 +111,7 @@ public class StatusService {
         }
 
         mapper.update(data, status);
+        eventPublisher.publishEvent(new EntityChangedEvent(Status.class, id));
         Status updatedStatus = statusRepository.findById(id).get();
 
         return mapper.map(updatedStatus);
@@ -109,6 +127,7 @@ public class StatusService {
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
 
         statusRepository.delete(status);
+        eventPublisher.publishEvent(new EntityChangedEvent(Status.class, id));
     }
 
 }
@@ -0,0 +1,150 @@
+package hexlet.code.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.task.TaskFieldChangeDTO;
+import hexlet.code.dto.task.TaskHistoryDTO;
+import hexlet.code.dto.task.TaskHistoryPageDTO;
+import hexlet.code.dto.task.UpdateTaskDTO;
+import hexlet.code.model.Label;
+import hexlet.code.model.Task;
+import hexlet.code.model.TaskHistory;
+import hexlet.code.model.User;
+import hexlet.code.repository.TaskHistoryRepository;
+import hexlet.code.util.exception.BadDataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Audit trail of task updates. Each update appends one row holding only the fields it changed,
+ * instead of a copy of the whole task.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TaskHistoryService {
+    public static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private TaskHistoryRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final TypeReference<Map<String, TaskFieldChangeDTO>> CHANGES_TYPE = new TypeReference<>() { };
+
+    /**
+     * @param task task before the update
+     * @return values of the fields an update can change, by the names of UpdateTaskDTO
+     */
+    public static Map<String, Object> values(Task task) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", task.getName());
+        values.put("description", task.getDescription());
+        values.put("authorId", task.getAuthor() == null ? null : task.getAuthor().getId());
+        values.put("executorId", task.getExecutor() == null ? null : task.getExecutor().getId());
+        values.put("taskStatusId", task.getTaskStatus() == null ? null : task.getTaskStatus().getId());
+        values.put("labelIds", task.getLabels() == null ? List.of()
+                : task.getLabels().stream().map(Label::getId).sorted().toList());
+        return values;
+    }
+
+    /**
+     * @param data update request, fields absent from it are not compared
+     * @return names of the fields given by the request
+     */
+    public static Set<String> fields(UpdateTaskDTO data) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (data.getName() != null) {
+            fields.add("name");
+        }
+        if (data.getDescription() != null) {
+            fields.add("description");
+        }
+        if (data.getAuthorId() != null) {
+            fields.add("authorId");
+        }
+        if (data.getExecutorId() != null) {
+            fields.add("executorId");
+        }
+        if (data.getTaskStatusId() != null) {
+            fields.add("taskStatusId");
+        }
+        if (data.getLabelIds() != null) {
+            fields.add("labelIds");
+        }
+        return fields;
+    }
+
+    /**
+     * Appends the changed fields in the transaction of the update, nothing if no field changed.
+     * @param task updated and flushed task, its version becomes the seq of the row
+     * @param before values taken with values() before the update
+     * @param fields fields the update could change
+     * @param user user making the update
+     */
+    @Transactional
+    public void record(Task task, Map<String, Object> before, Set<String> fields, User user) {
+        Map<String, Object> after = values(task);
+        Map<String, TaskFieldChangeDTO> changes = new LinkedHashMap<>();
+        fields.stream()
+                .filter(field -> !Objects.equals(before.get(field), after.get(field)))
+                .forEach(field -> changes.put(field, new TaskFieldChangeDTO(before.get(field), after.get(field))));
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            repository.insert(new TaskHistory(task.getId(), task.getVersion(), user.getId(), LocalDateTime.now(),
+                    objectMapper.writeValueAsString(changes)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param taskId task id, the history of a deleted task is kept
+     * @param after seq of the last change of the previous page, null for the first page
+     * @param limit max number of changes on the page
+     * @return changes ordered by seq
+     */
+    public TaskHistoryPageDTO findPage(Long taskId, Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadDataException("Limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<TaskHistoryDTO> changes = repository.findPage(taskId, after == null ? 0 : after,
+                        PageRequest.of(0, limit + 1)).stream()
+                .map(this::map)
+                .toList();
+        boolean hasNext = changes.size() > limit;
+        if (hasNext) {
+            changes = changes.subList(0, limit);
+        }
+
+        return new TaskHistoryPageDTO(changes, hasNext ? changes.get(changes.size() - 1).getSeq() : null);
+    }
+
+    private TaskHistoryDTO map(TaskHistory row) {
+        try {
+            return new TaskHistoryDTO(row.getSeq(), row.getChangedById(),
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.getChangedAt()),
+                    objectMapper.readValue(row.getChanges(), CHANGES_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
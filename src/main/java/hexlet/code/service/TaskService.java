@@ -1,30 +1,75 @@
 package hexlet.code.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
+import hexlet.code.component.ChangeSequence;
+import hexlet.code.component.ReferenceResolver;
+import hexlet.code.component.TaskDeleteJobs;
+import hexlet.code.component.TaskImporter;
+import hexlet.code.component.TaskListCache;
+import hexlet.code.dto.BulkItemResultDTO;
+import hexlet.code.dto.BulkResultDTO;
+import hexlet.code.dto.BulkUpdateResultDTO;
+import hexlet.code.dto.task.BulkDeleteTaskDTO;
+import hexlet.code.dto.task.BulkUpdateTaskDTO;
 import hexlet.code.dto.task.CreateTaskDTO;
 import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskChangesDTO;
+import hexlet.code.dto.task.TaskCountsDTO;
+import hexlet.code.dto.task.TaskDeleteJobDTO;
+import hexlet.code.dto.task.TaskExportRow;
+import hexlet.code.dto.task.TaskHistoryPageDTO;
+import hexlet.code.dto.task.TaskImportResultDTO;
+import hexlet.code.dto.task.TaskPageDTO;
 import hexlet.code.dto.task.UpdateTaskDTO;
+import hexlet.code.event.TaskChangedEvent;
+import hexlet.code.event.TaskSnapshot;
 import hexlet.code.mapper.TaskMapperImpl;
 import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
 import hexlet.code.model.Status;
 import hexlet.code.model.Task;
+import hexlet.code.model.TaskTombstone;
 import hexlet.code.model.User;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.StatusRepository;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskTombstoneRepository;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.ETags;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskCursor;
+import hexlet.code.util.TaskSort;
+import hexlet.code.util.exception.BadDataException;
 import hexlet.code.util.exception.EntityNotFoundByNameException;
 import hexlet.code.util.exception.EntityNotFoundException;
 import hexlet.code.util.exception.PermissionDeniedException;
+import hexlet.code.util.exception.PreconditionFailedException;
+import hexlet.code.util.export.ExportFormat;
+import hexlet.code.util.export.TaskExportWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -42,14 +87,52 @@ public class TaskService {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private TaskTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private TaskListCache taskListCache;
+
+    @Autowired
+    private TaskDeleteJobs deleteJobs;
+
+    @Autowired
+    private TaskImporter importer;
+
+    @Autowired
+    private ReferenceResolver references;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TaskHistoryService historyService;
+
     @Autowired
     private TaskMapperImpl mapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
     private final String entityName = "Task";
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final int MAX_BULK_SIZE = 10000;
+
+    private static final int BULK_FLUSH_SIZE = 1000;
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     @Transactional
     public ResponseTaskDTO save(CreateTaskDTO dto) {
         if (!authService.isAuthenticated()) {
@@ -59,53 +142,228 @@ public class TaskService {
         Task task = mapper.map(dto);
         task.setAuthor(authService.getCurrentUser());
 
-        Long executorId = dto.getExecutorId();
-        if (executorId != null) {
-            User executor = userRepository.findById(executorId)
-                    .orElseThrow(() -> new EntityNotFoundException("Executor", executorId));
-            task.setExecutor(executor);
+        task.setExecutor(references.resolve(User.class, dto.getExecutorId(), "Executor"));
+        task.setTaskStatus(references.resolve(Status.class, dto.getTaskStatusId(), "Status"));
+        if (dto.getLabelIds() != null) {
+            task.setLabels(new HashSet<>(references.resolveAll(Label.class, dto.getLabelIds(), "Label").values()));
+        }
+
+        task.setChangeSeq(changeSequence.current());
+        taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskChangedEvent(null, TaskSnapshot.of(task)));
+
+        // References set by id are lazy, the details graph loads them with one query instead of one per entity
+        taskRepository.flush();
+        return mapper.map(taskRepository.findDetailedById(task.getId()).orElseThrow());
+    }
+
+    /**
+     * Creates the valid tasks of the list in one transaction and reports an outcome per item.
+     * Executors, statuses and labels of all items are loaded with one query per type, and tasks
+     * are inserted in JDBC batches.
+     * @param dtos tasks to create, at most MAX_BULK_SIZE
+     * @return outcome per item: 201 with the id, 422 for invalid data, 404 for a missing reference
+     */
+    @Transactional
+    public BulkResultDTO saveAll(List<CreateTaskDTO> dtos) {
+        if (!authService.isAuthenticated()) {
+            throw new PermissionDeniedException();
+        }
+        if (dtos == null || dtos.isEmpty() || dtos.size() > MAX_BULK_SIZE) {
+            throw new BadDataException("Bulk request has to contain from 1 to " + MAX_BULK_SIZE + " tasks");
         }
 
-        Long statusId = dto.getTaskStatusId();
-        if (statusId != null) {
-            Status status = statusRepository.findById(statusId)
-                    .orElseThrow(() -> new EntityNotFoundException("Status", statusId));
-            task.setTaskStatus(status);
+        List<String> errors = dtos.stream()
+                .map(dto -> dto == null ? "Task cannot be empty" : collectMessages(validator.validate(dto)))
+                .toList();
+        List<CreateTaskDTO> valid = new ArrayList<>();
+        for (int index = 0; index < dtos.size(); index++) {
+            if (errors.get(index) == null) {
+                valid.add(dtos.get(index));
+            }
         }
 
-        Set<Long> labelsId = dto.getLabelIds();
-        if (labelsId != null) {
-            Set<Label> labels = new HashSet<>();
-            for (Long labelId : labelsId) {
-                Label label = labelRepository.findById(labelId)
-                        .orElseThrow(() -> new EntityNotFoundException("Label", labelId));
-                labels.add(label);
+        Map<Long, User> executors = references.findAll(User.class, collectIds(valid,
+                dto -> dto.getExecutorId() == null ? Stream.empty() : Stream.of(dto.getExecutorId())));
+        Map<Long, Status> statuses = references.findAll(Status.class, collectIds(valid,
+                dto -> Stream.of(dto.getTaskStatusId())));
+        Map<Long, Label> labels = references.findAll(Label.class, collectIds(valid,
+                dto -> dto.getLabelIds() == null ? Stream.empty() : dto.getLabelIds().stream()));
+
+        User author = authService.getCurrentUser();
+        long changeSeq = changeSequence.current();
+        List<BulkItemResultDTO> items = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        List<BulkItemResultDTO> createdItems = new ArrayList<>();
+
+        for (int index = 0; index < dtos.size(); index++) {
+            CreateTaskDTO dto = dtos.get(index);
+            if (errors.get(index) != null) {
+                items.add(new BulkItemResultDTO(index, null, HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        errors.get(index)));
+                continue;
             }
 
-            task.setLabels(labels);
+            try {
+                Task task = mapper.map(dto);
+                task.setAuthor(author);
+                task.setExecutor(dto.getExecutorId() == null ? null
+                        : find(executors, dto.getExecutorId(), "Executor"));
+                task.setTaskStatus(find(statuses, dto.getTaskStatusId(), "Status"));
+                Set<Label> taskLabels = new HashSet<>();
+                for (Long labelId : dto.getLabelIds() == null ? Set.<Long>of() : dto.getLabelIds()) {
+                    taskLabels.add(find(labels, labelId, "Label"));
+                }
+                task.setLabels(taskLabels);
+                task.setChangeSeq(changeSeq);
+
+                BulkItemResultDTO item = new BulkItemResultDTO(index, null, HttpStatus.CREATED.value(), null);
+                tasks.add(task);
+                createdItems.add(item);
+                items.add(item);
+            } catch (EntityNotFoundException e) {
+                items.add(new BulkItemResultDTO(index, null, HttpStatus.NOT_FOUND.value(), e.getMessage()));
+            }
         }
 
-        taskRepository.save(task);
-        return mapper.map(task);
+        taskRepository.insertAll(tasks, BULK_FLUSH_SIZE);
+        for (int i = 0; i < tasks.size(); i++) {
+            createdItems.get(i).setId(tasks.get(i).getId());
+            eventPublisher.publishEvent(new TaskChangedEvent(null, TaskSnapshot.of(tasks.get(i))));
+        }
+
+        return new BulkResultDTO(tasks.size(), dtos.size() - tasks.size(), items);
+    }
+
+    public List<ResponseTaskDTO> findAll(Predicate predicate, SparseFields fields) {
+        return taskListCache.findAll(predicate, fields);
+    }
+
+    /**
+     * @param sort order of the tasks, null for the order by id which lists are cached in
+     */
+    public List<ResponseTaskDTO> findAll(Predicate predicate, SparseFields fields, TaskSort sort) {
+        if (sort == null) {
+            return findAll(predicate, fields);
+        }
+        return taskRepository.findRows(predicate, fields, 0, sort.toOrder());
     }
 
-    public List<ResponseTaskDTO> findAll(Predicate predicate) {
-        Iterable<Task> tasks = taskRepository.findAll(predicate);
+    public TaskPageDTO findPage(Predicate predicate, int limit, String after, TaskSort sort, SparseFields fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadDataException("Limit has to be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        TaskSort order = sort == null ? TaskSort.DEFAULT : sort;
+        TaskCursor cursor = after == null ? null : TaskCursor.decode(after);
+        // The next cursor is built from the sort key of the last task, whatever fields are returned
+        SparseFields rowFields = order.getKeyField() == null ? fields : fields.with(order.getKeyField());
 
-        List<ResponseTaskDTO> tasksDTO = StreamSupport.stream(tasks.spliterator(), false)
-                .map(task -> mapper.map(task))
-                .collect(Collectors.toList());
+        // One extra row tells whether there is a next page without a count query
+        List<ResponseTaskDTO> tasks = taskRepository.findPage(predicate, order, cursor, rowFields, limit + 1);
+        boolean hasNext = tasks.size() > limit;
+        if (hasNext) {
+            tasks = tasks.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            nextCursor = order.cursorAfter(tasks.get(tasks.size() - 1)).encode();
+        }
+
+        return new TaskPageDTO(tasks, nextCursor);
+    }
+
+    /**
+     * Collects tasks created, updated or deleted after the given change sequence value.
+     * @param since nextSince of the previous call, null to get every task
+     * @return changed tasks, ids of deleted tasks and the value to pass next time
+     */
+    public TaskChangesDTO findChanges(Long since) {
+        // Values are committed in order, so changes committed after the bound get greater values
+        long until = findLastChangeSeq();
+        long from = since == null ? -1 : since;
+
+        QTask task = QTask.task;
+        Predicate changed = task.changeSeq.gt(from).and(task.changeSeq.loe(until));
+        List<ResponseTaskDTO> upserts = taskRepository.findRows(changed, SparseFields.all(), 0,
+                task.changeSeq.asc(), task.id.asc());
+        List<Long> deletes = since == null ? List.of() : tombstoneRepository.findTaskIds(from, until);
+
+        return new TaskChangesDTO(upserts, deletes, until);
+    }
 
-        return tasksDTO;
+    /**
+     * Tags do not depend on the filter: the last change sequence value grows with every committed change
+     * of any task, and takes two index lookups instead of reading the matching tasks.
+     * @return tag of task lists and pages, changes with any task, user, status or label
+     */
+    public String findListETag() {
+        return ETags.of(findLastChangeSeq(), userRepository.findChangeStamp(), statusRepository.findChangeStamp(),
+                labelRepository.findChangeStamp());
+    }
+
+    public String findCountsETag() {
+        return ETags.of(findLastChangeSeq());
+    }
+
+    private long findLastChangeSeq() {
+        return Math.max(taskRepository.findMaxChangeSeq(), tombstoneRepository.findMaxChangeSeq());
+    }
+
+    public String findETag(Long id) {
+        return taskRepository.findVersionTag(id)
+                .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+    }
+
+    public TaskCountsDTO count(Predicate predicate) {
+        return taskRepository.countTasks(predicate);
+    }
+
+    /**
+     * Writes every task matching the predicate to the stream while reading it from the database,
+     * so memory use does not depend on the number of exported tasks.
+     * @param predicate filter built from request parameters, may be null
+     * @param format output format
+     * @param out stream to write to, stays open
+     * @throws IOException if writing to the stream fails
+     */
+    public void export(Predicate predicate, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TaskExportRow> rows = taskRepository.streamExportRows(predicate, EXPORT_FETCH_SIZE);
+             TaskExportWriter writer = TaskExportWriter.of(format, out, objectMapper)) {
+            TaskExportRow current = null;
+
+            for (Iterator<TaskExportRow> iterator = rows.iterator(); iterator.hasNext();) {
+                TaskExportRow row = iterator.next();
+
+                if (current != null && current.getId().equals(row.getId())) {
+                    current.getLabels().addAll(row.getLabels());
+                    continue;
+                }
+
+                if (current != null) {
+                    writer.write(current);
+                }
+                current = row;
+            }
+
+            if (current != null) {
+                writer.write(current);
+            }
+        }
     }
 
     public ResponseTaskDTO findById(Long id) {
-        Task task = taskRepository.findById(id)
+        Task task = taskRepository.findDetailedById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
 
         return mapper.map(task);
     }
 
+    public TaskHistoryPageDTO findHistory(Long id, Long after, int limit) {
+        return historyService.findPage(id, after, limit);
+    }
+
     public ResponseTaskDTO findByName(String name) {
         Task task = taskRepository.findByName(name)
                 .orElseThrow(() -> new EntityNotFoundByNameException(entityName, name));
@@ -113,45 +371,124 @@ public class TaskService {
         return mapper.map(task);
     }
 
+    /**
+     * @param ifMatch If-Match header of the request, null to update any version
+     * @throws PreconditionFailedException if the task version does not match the header
+     */
     @Transactional
-    public ResponseTaskDTO update(Long id, UpdateTaskDTO data) {
-        if (!authService.isAuthenticated()) {
+    public ResponseTaskDTO update(Long id, UpdateTaskDTO data, String ifMatch) {
+        User user = authService.getCurrentUser();
+        if (user == null) {
             throw new PermissionDeniedException();
         }
 
-        Task task = taskRepository.findById(id)
+        Task task = taskRepository.findForUpdateById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+        // A change made after this check still fails on flush, the update statement compares the version too
+        if (!ETags.matches(ifMatch, task.getVersion())) {
+            throw new PreconditionFailedException(entityName, id);
+        }
+        TaskSnapshot before = TaskSnapshot.of(task);
+        Map<String, Object> values = TaskHistoryService.values(task);
+        // Taken before any change, the sequence query would flush the changes and the version would grow twice
+        task.setChangeSeq(changeSequence.current());
 
         if (data.getExecutorId() != null) {
-            Long executorId = data.getExecutorId().get();
-            User executor = userRepository.findById(executorId)
-                    .orElseThrow(() -> new EntityNotFoundException("Executor", executorId));
-            task.setExecutor(executor);
+            task.setExecutor(references.resolve(User.class, data.getExecutorId().get(), "Executor"));
         }
 
         if (data.getTaskStatusId() != null) {
-            Long statusId = data.getTaskStatusId().get();
-            Status status = statusRepository.findById(statusId)
-                    .orElseThrow(() -> new EntityNotFoundException("Status", statusId));
-            task.setTaskStatus(status);
+            task.setTaskStatus(references.resolve(Status.class, data.getTaskStatusId().get(), "Status"));
         }
 
         if (data.getLabelIds() != null) {
-            Set<Long> labelsId = data.getLabelIds().get();
-            Set<Label> labels = new HashSet<>();
-            for (Long labelId : labelsId) {
-                Label label = labelRepository.findById(labelId)
-                        .orElseThrow(() -> new EntityNotFoundException("Label", labelId));
-                labels.add(label);
-            }
-
-            task.setLabels(labels);
+            setLabels(task, data.getLabelIds().orElse(Set.of()));
         }
 
         mapper.update(data, task);
-        Task updatedtask = taskRepository.findById(id).get();
+        eventPublisher.publishEvent(new TaskChangedEvent(before, TaskSnapshot.of(task)));
 
-        return mapper.map(updatedtask);
+        // The flush fills in the new version
+        taskRepository.flush();
+        historyService.record(task, values, TaskHistoryService.fields(data), user);
+        return mapper.map(task);
+    }
+
+    /**
+     * Applies one change to every task chosen by ids and the filter with set-based statements,
+     * instead of loading and saving each task. Every changed task gets its own event, so at most
+     * MAX_BULK_SIZE tasks are changed by one request.
+     * @param predicate filter built from request parameters, may be null
+     * @param data change and optional ids of the tasks, at most MAX_BULK_SIZE ids
+     * @return number of changed tasks
+     */
+    @Transactional
+    public BulkUpdateResultDTO updateAll(Predicate predicate, BulkUpdateTaskDTO data) {
+        if (!authService.isAuthenticated()) {
+            throw new PermissionDeniedException();
+        }
+        if (data.getIds() != null && data.getIds().size() > MAX_BULK_SIZE) {
+            throw new BadDataException("Bulk request has to contain at most " + MAX_BULK_SIZE + " ids");
+        }
+        BooleanBuilder where = new BooleanBuilder(predicate);
+        if (data.getIds() != null) {
+            where.and(QTask.task.id.in(data.getIds()));
+        }
+        if (!where.hasValue()) {
+            throw new BadDataException("Choose tasks with ids or filter parameters");
+        }
+
+        Long statusId = data.getTaskStatusId() == null ? null : data.getTaskStatusId().orElse(null);
+        boolean changeExecutor = data.getExecutorId() != null && data.getExecutorId().isPresent();
+        Long executorId = changeExecutor ? data.getExecutorId().get() : null;
+        Set<Long> addLabelIds = data.getAddLabelIds() == null ? Set.of() : data.getAddLabelIds();
+        Set<Long> removeLabelIds = data.getRemoveLabelIds() == null ? Set.of() : data.getRemoveLabelIds();
+        if (statusId == null && !changeExecutor && addLabelIds.isEmpty() && removeLabelIds.isEmpty()) {
+            throw new BadDataException("Nothing to change, set taskStatusId, executorId, addLabelIds"
+                    + " or removeLabelIds");
+        }
+
+        references.resolve(Status.class, statusId, "Status");
+        references.resolve(User.class, executorId, "Executor");
+        Set<Long> labelIds = new HashSet<>(addLabelIds);
+        labelIds.addAll(removeLabelIds);
+        references.resolveAll(Label.class, labelIds, "Label");
+
+        long matched = taskRepository.count(where);
+        if (matched > MAX_BULK_SIZE) {
+            throw new BadDataException("Filter matches " + matched + " tasks, a bulk update can change at most "
+                    + MAX_BULK_SIZE);
+        }
+        List<TaskSnapshot> before = taskRepository.findSnapshots(where);
+        if (before.isEmpty()) {
+            return new BulkUpdateResultDTO(0);
+        }
+
+        List<Long> ids = before.stream().map(TaskSnapshot::getId).toList();
+        taskRepository.updateAll(ids, statusId, changeExecutor, executorId, addLabelIds, removeLabelIds,
+                changeSequence.current());
+
+        for (TaskSnapshot task : before) {
+            Set<Long> labels = new HashSet<>(task.getLabelIds());
+            labels.removeAll(removeLabelIds);
+            labels.addAll(addLabelIds);
+            TaskSnapshot after = new TaskSnapshot(task.getId(),
+                    statusId == null ? task.getTaskStatusId() : statusId, task.getAuthorId(),
+                    changeExecutor ? executorId : task.getExecutorId(), labels);
+            eventPublisher.publishEvent(new TaskChangedEvent(task, after));
+        }
+
+        return new BulkUpdateResultDTO(ids.size());
+    }
+
+    @Transactional
+    public ResponseTaskDTO addLabel(Long id, Long labelId) {
+        return changeLabels(id, labelId, labelIds -> labelIds.add(labelId));
+    }
+
+    @Transactional
+    public ResponseTaskDTO removeLabel(Long id, Long labelId) {
+        return changeLabels(id, labelId, labelIds -> labelIds.remove(labelId));
     }
 
     @Transactional
@@ -167,7 +504,116 @@ public class TaskService {
             throw new PermissionDeniedException();
         }
 
+        TaskSnapshot before = TaskSnapshot.of(task);
         taskRepository.delete(task);
+        tombstoneRepository.save(new TaskTombstone(task.getId(), changeSequence.current()));
+        eventPublisher.publishEvent(new TaskChangedEvent(before, null));
+    }
+
+    /**
+     * Imports tasks of the current user from an upload, in transactions of a batch each.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TaskImportResultDTO importTasks(InputStream in, ExportFormat format) throws IOException {
+        User user = authService.getCurrentUser();
+        if (user == null) {
+            throw new PermissionDeniedException();
+        }
+
+        return importer.importTasks(in, format, user.getId());
+    }
+
+    /**
+     * Starts deleting the chosen tasks in the background. Only tasks of the current user are deleted,
+     * the others are counted as denied.
+     */
+    public TaskDeleteJobDTO deleteAll(Predicate predicate, BulkDeleteTaskDTO data) {
+        User user = authService.getCurrentUser();
+        if (user == null) {
+            throw new PermissionDeniedException();
+        }
+
+        BooleanBuilder where = new BooleanBuilder(predicate);
+        if (data != null && data.getIds() != null) {
+            where.and(QTask.task.id.in(data.getIds()));
+        }
+        if (!where.hasValue()) {
+            throw new BadDataException("Choose tasks with ids or filter parameters");
+        }
+
+        return deleteJobs.start(where.getValue(), user.getId());
     }
 
+    public TaskDeleteJobDTO findDeleteJob(Long id) {
+        User user = authService.getCurrentUser();
+        if (user == null) {
+            throw new PermissionDeniedException();
+        }
+
+        return deleteJobs.find(id, user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Delete job", id));
+    }
+
+    private ResponseTaskDTO changeLabels(Long id, Long labelId, Consumer<Set<Long>> change) {
+        User user = authService.getCurrentUser();
+        if (user == null) {
+            throw new PermissionDeniedException();
+        }
+
+        Task task = taskRepository.findForUpdateById(id)
+                .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+        references.resolve(Label.class, labelId, "Label");
+        TaskSnapshot before = TaskSnapshot.of(task);
+        Map<String, Object> values = TaskHistoryService.values(task);
+
+        Set<Long> labelIds = new HashSet<>(before.getLabelIds());
+        change.accept(labelIds);
+        // Adding a label the task has or removing one it lacks changes nothing, not even the version
+        if (!labelIds.equals(before.getLabelIds())) {
+            task.setChangeSeq(changeSequence.current());
+            setLabels(task, labelIds);
+            eventPublisher.publishEvent(new TaskChangedEvent(before, TaskSnapshot.of(task)));
+        }
+
+        taskRepository.flush();
+        historyService.record(task, values, Set.of("labelIds"), user);
+        return mapper.map(task);
+    }
+
+    // The label set is changed in place, so only added and removed pairs are written to tasks_labels
+    private void setLabels(Task task, Set<Long> labelIds) {
+        Set<Long> added = new HashSet<>(labelIds);
+        task.getLabels().forEach(label -> added.remove(label.getId()));
+        Map<Long, Label> addedLabels = references.resolveAll(Label.class, added, "Label");
+
+        task.getLabels().removeIf(label -> !labelIds.contains(label.getId()));
+        task.getLabels().addAll(addedLabels.values());
+    }
+
+    private static Set<Long> collectIds(List<CreateTaskDTO> dtos, Function<CreateTaskDTO, Stream<Long>> ids) {
+        return dtos.stream().flatMap(ids).collect(Collectors.toSet());
+    }
+
+    private static <T> T find(Map<Long, T> entities, Long id, String entityName) {
+        T entity = entities.get(id);
+        if (entity == null) {
+            throw new EntityNotFoundException(entityName, id);
+        }
+        return entity;
+    }
+
+    // Same format as FieldErrorHandler uses for a single task
+    private static String collectMessages(Set<ConstraintViolation<CreateTaskDTO>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder errorMsg = new StringBuilder();
+        for (ConstraintViolation<CreateTaskDTO> violation : violations) {
+            errorMsg.append(violation.getPropertyPath())
+                    .append(" - ").append(violation.getMessage())
+                    .append(";");
+        }
+        return errorMsg.toString();
+    }
 }
@@ -3,15 +3,19 @@ package hexlet.code.service;
 import hexlet.code.dto.user.CreateUserDTO;
 import hexlet.code.dto.user.ResponseUserDTO;
 import hexlet.code.dto.user.UpdateUserDTO;
+import hexlet.code.event.EntityChangedEvent;
 import hexlet.code.mapper.UserMapperImpl;
 import hexlet.code.model.User;
 import hexlet.code.repository.UserRepository;
+import hexlet.code.util.ETags;
 import hexlet.code.util.exception.EntityExistsException;
 import hexlet.code.util.exception.EntityNotFoundByNameException;
 import hexlet.code.util.exception.EntityNotFoundException;
 import hexlet.code.util.exception.PermissionDeniedException;
+import hexlet.code.util.exception.PreconditionFailedException;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +36,9 @@ public class UserService {
     @Autowired
     private UserMapperImpl mapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private PasswordEncoder encoder;
 
@@ -69,6 +76,17 @@ public class UserService {
         return usersDTO;
     }
 
+    public String findListETag() {
+        return ETags.of(repository.findChangeStamp());
+    }
+
+    public String findETag(Long id) {
+        Long version = repository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException(entityName, id));
+
+        return ETags.of(version);
+    }
+
     public ResponseUserDTO findById(Long id) {
         User user = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
@@ -83,14 +101,21 @@ public class UserService {
         return mapper.map(user);
     }
 
+    /**
+     * @param ifMatch If-Match header of the request, null to update any version
+     * @throws PreconditionFailedException if the user version does not match the header
+     */
     @Transactional
-    public ResponseUserDTO update(Long id, UpdateUserDTO data) {
+    public ResponseUserDTO update(Long id, UpdateUserDTO data, String ifMatch) {
         User user = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(entityName, id));
 
         if (!authService.hasPermissions(user)) {
             throw new PermissionDeniedException();
         }
+        if (!ETags.matches(ifMatch, user.getVersion())) {
+            throw new PreconditionFailedException(entityName, id);
+        }
 
         if (data.getEmail() != null && data.getEmail().isPresent()) {
             String email = data.getEmail().get();
@@ -106,9 +131,11 @@ public class UserService {
         }
 
         mapper.update(data, user);
-        User updatedUser = repository.findById(id).get();
+        eventPublisher.publishEvent(new EntityChangedEvent(User.class, id));
 
-        return mapper.map(updatedUser);
+        // The flush fills in the new version
+        repository.flush();
+        return mapper.map(user);
     }
 
     @Transactional
@@ -121,5 +148,6 @@ public class UserService {
         }
 
         repository.delete(user);
+        eventPublisher.publishEvent(new EntityChangedEvent(User.class, id));
     }
 }
@@ -0,0 +1,22 @@
+package hexlet.code.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Changes whenever a row of a table is inserted, updated or deleted: inserts raise the max id,
+ * updates raise the sum of versions and deletes lower the count. This holds for a whole table only,
+ * rows moving in and out of a filtered set can leave its stamp unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeStamp {
+    private long count;
+    private long versionSum;
+    private long maxId;
+
+    @Override
+    public String toString() {
+        return count + "-" + versionSum + "-" + maxId;
+    }
+}
@@ -0,0 +1,77 @@
+package hexlet.code.util;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Strong entity tags built from entity versions. Tags of single entities start with the entity version.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version version of the entity
+     * @param related sum of versions of the entities embedded into the response
+     * @return tag of the entity response
+     */
+    public static String of(long version, long related) {
+        return "\"" + version + "." + related + "\"";
+    }
+
+    /**
+     * @param changeSeq last change sequence value of the tasks
+     * @param related stamps of the tables embedded into the response
+     * @return tag of a task collection
+     */
+    public static String of(long changeSeq, ChangeStamp... related) {
+        return "\"" + changeSeq + Arrays.stream(related)
+                .map(stamp -> "." + stamp)
+                .collect(Collectors.joining()) + "\"";
+    }
+
+    public static String of(ChangeStamp... stamps) {
+        return Arrays.stream(stamps)
+                .map(ChangeStamp::toString)
+                .collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    /**
+     * Reads the entity version from a tag of a single entity.
+     * @param etag tag as sent in a request header
+     * @return version, null if the tag is weak or not a version tag
+     */
+    public static Long parseVersion(String etag) {
+        if (etag == null || !etag.startsWith("\"") || !etag.endsWith("\"") || etag.length() < 3) {
+            return null;
+        }
+
+        String value = etag.substring(1, etag.length() - 1);
+        int end = value.indexOf('.');
+        try {
+            return Long.valueOf(end < 0 ? value : value.substring(0, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param ifMatch value of an If-Match header, may be null
+     * @param version current version of the entity
+     * @return true if the header is absent, is "*" or lists a strong tag of the version
+     */
+    public static boolean matches(String ifMatch, long version) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return true;
+        }
+
+        return Arrays.stream(ifMatch.split(","))
+                .map(tag -> parseVersion(tag.trim()))
+                .anyMatch(tagVersion -> tagVersion != null && tagVersion == version);
+    }
+}
@@ -10,6 +10,14 @@ public class NamedRoutes {
     private static final String STATUSES_PATH = "/statuses";
     private static final String TASKS_PATH = "/tasks";
     private static final String LABELS_PATH = "/labels";
+    private static final String EXPORT = "/export";
+    private static final String COUNTS = "/counts";
+    private static final String COUNTERS = "/counters";
+    private static final String CHANGES = "/changes";
+    private static final String BULK = "/bulk";
+    private static final String DELETE = "/delete";
+    private static final String HISTORY = "/history";
+    private static final String IMPORT = "/import";
 
     public static String usersPath() {
         return USERS_PATH;
@@ -51,6 +59,46 @@ public class NamedRoutes {
         return taskPath(String.valueOf(id));
     }
 
+    public static String taskLabelPath(Long id, Long labelId) {
+        return taskPath(id) + LABELS_PATH + "/" + labelId;
+    }
+
+    public static String taskHistoryPath(Long id) {
+        return taskPath(id) + HISTORY;
+    }
+
+    public static String tasksExportPath() {
+        return TASKS_PATH + EXPORT;
+    }
+
+    public static String tasksImportPath() {
+        return TASKS_PATH + IMPORT;
+    }
+
+    public static String tasksCountsPath() {
+        return TASKS_PATH + COUNTS;
+    }
+
+    public static String tasksCountersPath() {
+        return TASKS_PATH + COUNTERS;
+    }
+
+    public static String tasksChangesPath() {
+        return TASKS_PATH + CHANGES;
+    }
+
+    public static String tasksBulkPath() {
+        return TASKS_PATH + BULK;
+    }
+
+    public static String tasksBulkDeletePath() {
+        return TASKS_PATH + BULK + DELETE;
+    }
+
+    public static String tasksBulkDeletePath(Long jobId) {
+        return tasksBulkDeletePath() + "/" + jobId;
+    }
+
     public static String labelsPath() {
         return LABELS_PATH;
     }
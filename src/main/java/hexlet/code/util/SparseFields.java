@@ -0,0 +1,152 @@
+package hexlet.code.util;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import hexlet.code.util.exception.BadDataException;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Fields requested with the fields parameter, like "id,name,taskStatus,author.email".
+ * A nested field limits the properties of the object it belongs to, a bare one keeps all of them.
+ */
+public final class SparseFields {
+    public static final String PARAM = "fields";
+
+    private static final SparseFields ALL = new SparseFields(null);
+
+    // null when every field is requested
+    private final Set<String> fields;
+
+    private SparseFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static SparseFields all() {
+        return ALL;
+    }
+
+    /**
+     * Parses the fields parameter checking each name against the properties of the response type.
+     * @param value comma separated field names, null or blank for all fields
+     * @param type response class the names refer to
+     * @return requested fields
+     */
+    public static SparseFields parse(String value, Class<?> type) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> fields = new HashSet<>();
+        for (String name : value.split(",")) {
+            String field = name.trim();
+            if (!field.isEmpty()) {
+                check(field, type);
+                fields.add(field);
+            }
+        }
+
+        return fields.isEmpty() ? ALL : new SparseFields(Collections.unmodifiableSet(fields));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public Set<String> getFields() {
+        return fields == null ? Set.of() : fields;
+    }
+
+    /**
+     * @param field top level field name
+     * @return true if the field or any of its nested fields is requested
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field)
+                || fields.stream().anyMatch(name -> name.startsWith(field + "."));
+    }
+
+    /**
+     * @param field top level field name
+     * @return fields including the given one too
+     */
+    public SparseFields with(String field) {
+        if (includes(field)) {
+            return this;
+        }
+
+        Set<String> extended = new HashSet<>(fields);
+        extended.add(field);
+        return new SparseFields(Collections.unmodifiableSet(extended));
+    }
+
+    /**
+     * @return top level names of the requested fields
+     */
+    public Set<String> topLevel() {
+        Set<String> names = new HashSet<>();
+        for (String field : getFields()) {
+            names.add(field.contains(".") ? field.substring(0, field.indexOf('.')) : field);
+        }
+        return names;
+    }
+
+    /**
+     * Collects nested fields requested for the given parents. Any parent requested without nested fields
+     * makes the result null, which means all fields.
+     * @param parents top level fields holding objects of the same type
+     * @return names of nested fields, null for all
+     */
+    public Set<String> nested(String... parents) {
+        if (fields == null) {
+            return null;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (String parent : parents) {
+            if (fields.contains(parent)) {
+                return null;
+            }
+
+            for (String field : fields) {
+                if (field.startsWith(parent + ".")) {
+                    names.add(field.substring(parent.length() + 1));
+                }
+            }
+        }
+        return names;
+    }
+
+    // Nested names are allowed one level deep, for objects serialized through a filter
+    private static void check(String field, Class<?> type) {
+        String[] path = field.split("\\.");
+        Class<?> current = type;
+
+        if (path.length > 2) {
+            throw new BadDataException("Field '" + field + "' is not valid");
+        }
+
+        for (String name : path) {
+            if (current == null) {
+                throw new BadDataException("Field '" + field + "' is not valid");
+            }
+
+            Class<?> fieldType = fieldType(current, name);
+            if (fieldType == null) {
+                throw new BadDataException("Field '" + field + "' is not valid");
+            }
+            current = fieldType.isAnnotationPresent(JsonFilter.class) ? fieldType : null;
+        }
+    }
+
+    private static Class<?> fieldType(Class<?> type, String name) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().equals(name)) {
+                return field.getType();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package hexlet.code.util;
+
+import hexlet.code.util.exception.BadDataException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in the task list: the sort it was made for and the values of the last task
+ * in that sort, which are its sort key, createdAt and id.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCursor {
+    private static final String SEPARATOR = "_";
+
+    private String sort;
+    // null when the sort has no key of its own or the task has no value for it
+    private String key;
+    private LocalDateTime createdAt;
+    private Long id;
+
+    public String encode() {
+        // The key goes last, so it may contain the separator
+        String raw = sort + SEPARATOR + createdAt + SEPARATOR + id + (key == null ? "" : SEPARATOR + key);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+
+            return new TaskCursor(parts[0], parts.length > 3 ? parts[3] : null, LocalDateTime.parse(parts[1]),
+                    Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadDataException("Cursor '" + cursor + "' is not valid");
+        }
+    }
+}
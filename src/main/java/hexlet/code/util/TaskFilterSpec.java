@@ -0,0 +1,189 @@
+package hexlet.code.util;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.event.TaskSnapshot;
+import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Status;
+import hexlet.code.model.User;
+import lombok.EqualsAndHashCode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Normalized form of a task filter: for each constrained field the set of ids a task may have.
+ * Two predicates filtering the same way give equal specs whatever the order of their parts.
+ */
+@EqualsAndHashCode
+public final class TaskFilterSpec {
+    public static final String AUTHOR = "author";
+    public static final String EXECUTOR = "executor";
+    public static final String STATUS = "taskStatus";
+    public static final String LABELS = "labels";
+    public static final String LABELS_ALL = "labelsAll";
+    // Bound by the controller, every label is its own condition on the same path, which Querydsl bindings do not do
+    public static final String LABELS_ALL_PARAM = "labelsAllId";
+
+    private static final Map<Path<?>, String> FIELDS = Map.of(
+            QTask.task.author.id, AUTHOR,
+            QTask.task.executor.id, EXECUTOR,
+            QTask.task.taskStatus, STATUS,
+            QTask.task.taskStatus.id, STATUS,
+            QTask.task.labels.any().id, LABELS);
+
+    private final Map<String, Set<Long>> values;
+
+    private TaskFilterSpec(Map<String, Set<Long>> values) {
+        this.values = values;
+    }
+
+    /**
+     * Normalizes a predicate made of equality and IN conditions joined with AND,
+     * which is what the filter parameters of GET /api/tasks produce. An IN condition on labels means any of them,
+     * equality conditions on labels add up to labels a task must all have.
+     * @param predicate filter built from request parameters, may be null
+     * @return spec, empty if the predicate has other conditions
+     */
+    public static Optional<TaskFilterSpec> of(Predicate predicate) {
+        Map<String, Set<Long>> values = new TreeMap<>();
+
+        if (predicate != null && !collect(predicate, values)) {
+            return Optional.empty();
+        }
+
+        values.replaceAll((field, ids) -> Collections.unmodifiableSet(ids));
+        return Optional.of(new TaskFilterSpec(Collections.unmodifiableMap(values)));
+    }
+
+    /**
+     * @param predicate filter built from request parameters, may be null
+     * @param labelIds values of the labelsAllId parameter, may be null
+     * @return predicate also requiring every one of the labels, an EXISTS subquery per label
+     */
+    public static Predicate withAllLabels(Predicate predicate, Collection<Long> labelIds) {
+        if (labelIds == null || labelIds.isEmpty()) {
+            return predicate;
+        }
+
+        BooleanBuilder where = new BooleanBuilder(predicate);
+        labelIds.forEach(id -> where.and(QTask.task.labels.any().id.eq(id)));
+        return where.getValue();
+    }
+
+    /**
+     * @param field one of the field constants
+     * @return ids allowed for the field, null if the field is not constrained
+     */
+    public Set<Long> get(String field) {
+        return values.get(field);
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * @param task snapshot of a task
+     * @return true if the task passes the filter
+     */
+    public boolean matches(TaskSnapshot task) {
+        return allows(AUTHOR, task.getAuthorId())
+                && allows(EXECUTOR, task.getExecutorId())
+                && allows(STATUS, task.getTaskStatusId())
+                && (get(LABELS) == null || task.getLabelIds().stream().anyMatch(get(LABELS)::contains))
+                && (get(LABELS_ALL) == null || task.getLabelIds().containsAll(get(LABELS_ALL)));
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+
+    private boolean allows(String field, Long id) {
+        Set<Long> ids = get(field);
+        return ids == null || ids.contains(id);
+    }
+
+    private static boolean collect(Expression<?> expression, Map<String, Set<Long>> values) {
+        if (!(expression instanceof Operation<?> operation)) {
+            return false;
+        }
+
+        if (operation.getOperator() == Ops.AND) {
+            return collect(operation.getArg(0), values) && collect(operation.getArg(1), values);
+        }
+
+        boolean condition = operation.getOperator() == Ops.EQ || operation.getOperator() == Ops.IN;
+        if (!condition || !(operation.getArg(0) instanceof Path<?> path)
+                || !(operation.getArg(1) instanceof Constant<?> constant)) {
+            return false;
+        }
+
+        String field = FIELDS.get(path);
+        Set<Long> ids = toIds(constant.getConstant());
+        if (field == null || ids == null) {
+            return false;
+        }
+        if (field.equals(LABELS) && operation.getOperator() == Ops.EQ) {
+            field = LABELS_ALL;
+        }
+
+        Set<Long> existing = values.get(field);
+        if (existing == null) {
+            values.put(field, ids);
+            return true;
+        }
+
+        if (field.equals(LABELS_ALL)) {
+            existing.addAll(ids);
+            return true;
+        }
+        // Two sets of labels to have any of, which one set of ids can not express
+        if (field.equals(LABELS)) {
+            return false;
+        }
+        existing.retainAll(ids);
+        return true;
+    }
+
+    private static Set<Long> toIds(Object value) {
+        Set<Long> ids = new TreeSet<>();
+
+        for (Object item : value instanceof Collection<?> collection ? collection : Set.of(value)) {
+            Long id = toId(item);
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static Long toId(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof Status status) {
+            return status.getId();
+        }
+        if (value instanceof User user) {
+            return user.getId();
+        }
+        if (value instanceof Label label) {
+            return label.getId();
+        }
+        return null;
+    }
+}
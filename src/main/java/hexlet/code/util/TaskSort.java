@@ -0,0 +1,164 @@
+package hexlet.code.util;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.model.QTask;
+import hexlet.code.util.exception.BadDataException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Order of the task list given with the sort parameter, like "createdAt" or "executor,desc".
+ * Only orders an index returns rows in are allowed: createdAt and name are followed by id, taskStatus and executor
+ * by createdAt and id, the same way as in the (key, created_at, id) indexes. Tasks without executor come last
+ * in ascending order and first in descending one, where the database keeps nulls in an index.
+ */
+@Getter
+@AllArgsConstructor
+public final class TaskSort {
+    public static final String PARAM = "sort";
+
+    /**
+     * Order of pages when no sort is given.
+     */
+    public static final TaskSort DEFAULT = new TaskSort(Key.CREATED_AT, true);
+
+    private static final QTask TASK = QTask.task;
+
+    private final Key key;
+    private final boolean ascending;
+
+    @Getter
+    @AllArgsConstructor
+    public enum Key {
+        CREATED_AT("createdAt"),
+        NAME("name"),
+        STATUS("taskStatus"),
+        EXECUTOR("executor");
+
+        private final String property;
+    }
+
+    /**
+     * @param value property name optionally followed by ",asc" or ",desc"
+     * @return sort, null if the value is null or blank
+     */
+    public static TaskSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        String[] parts = value.trim().split("\\s*,\\s*");
+        Key key = Arrays.stream(Key.values())
+                .filter(candidate -> candidate.getProperty().equals(parts[0]))
+                .findFirst()
+                .orElseThrow(() -> new BadDataException("Tasks can not be sorted by '" + parts[0] + "', use one of "
+                        + Arrays.stream(Key.values()).map(Key::getProperty).collect(Collectors.joining(", "))));
+
+        if (parts.length > 2 || parts.length == 2 && !parts[1].matches("(?i)asc|desc")) {
+            throw new BadDataException("Sort '" + value + "' is not valid, use property or property,asc|desc");
+        }
+
+        return new TaskSort(key, parts.length == 1 || parts[1].equalsIgnoreCase("asc"));
+    }
+
+    public OrderSpecifier<?>[] toOrder() {
+        return switch (key) {
+            case CREATED_AT -> new OrderSpecifier<?>[] {order(TASK.createdAt), order(TASK.id)};
+            case NAME -> new OrderSpecifier<?>[] {order(TASK.name), order(TASK.id)};
+            case STATUS -> new OrderSpecifier<?>[] {order(TASK.taskStatus.id), order(TASK.createdAt), order(TASK.id)};
+            case EXECUTOR -> new OrderSpecifier<?>[] {
+                ascending ? TASK.executor.id.asc().nullsLast() : TASK.executor.id.desc().nullsFirst(),
+                order(TASK.createdAt), order(TASK.id)};
+        };
+    }
+
+    /**
+     * @param cursor position made by cursorAfter for the same sort
+     * @return condition keeping the tasks placed after the cursor
+     */
+    public Predicate after(TaskCursor cursor) {
+        if (!toString().equals(cursor.getSort())) {
+            throw new BadDataException("Cursor was made for sort '" + cursor.getSort() + "', not '" + this + "'");
+        }
+
+        BooleanExpression byId = past(TASK.id, cursor.getId());
+        BooleanExpression byCreatedAt = past(TASK.createdAt, cursor.getCreatedAt(), byId);
+
+        try {
+            return switch (key) {
+                case CREATED_AT -> byCreatedAt;
+                case NAME -> past(TASK.name, cursor.getKey(), byId);
+                case STATUS -> past(TASK.taskStatus.id, Long.valueOf(cursor.getKey()), byCreatedAt);
+                case EXECUTOR -> pastExecutor(cursor.getKey() == null ? null : Long.valueOf(cursor.getKey()),
+                        byCreatedAt);
+            };
+        } catch (NumberFormatException e) {
+            throw new BadDataException("Cursor key '" + cursor.getKey() + "' is not valid");
+        }
+    }
+
+    /**
+     * @param task last task of a page, with the field of the sort key filled
+     * @return position right after the task
+     */
+    public TaskCursor cursorAfter(ResponseTaskDTO task) {
+        String value = switch (key) {
+            case CREATED_AT -> null;
+            case NAME -> task.getName();
+            case STATUS -> String.valueOf(task.getTaskStatus().getId());
+            case EXECUTOR -> task.getExecutor() == null ? null : String.valueOf(task.getExecutor().getId());
+        };
+
+        return new TaskCursor(toString(), value, LocalDateTime.parse(task.getCreatedAt()), task.getId());
+    }
+
+    /**
+     * @return response field the cursor reads the sort key from, null if it needs none besides createdAt and id
+     */
+    public String getKeyField() {
+        return key == Key.STATUS || key == Key.EXECUTOR ? key.getProperty() : null;
+    }
+
+    @Override
+    public String toString() {
+        return key.getProperty() + (ascending ? ",asc" : ",desc");
+    }
+
+    private <T extends Comparable<?>> OrderSpecifier<T> order(Expression<T> path) {
+        return new OrderSpecifier<>(ascending ? Order.ASC : Order.DESC, path);
+    }
+
+    private BooleanExpression past(Expression<?> path, Object value) {
+        return Expressions.booleanOperation(ascending ? Ops.GT : Ops.LT, path, Expressions.constant(value));
+    }
+
+    // The bound on the leading column alone lets the database start the index scan at the cursor
+    private BooleanExpression past(Expression<?> path, Object value, BooleanExpression then) {
+        BooleanExpression bound = Expressions.booleanOperation(ascending ? Ops.GOE : Ops.LOE, path,
+                Expressions.constant(value));
+        BooleanExpression same = Expressions.booleanOperation(Ops.EQ, path, Expressions.constant(value));
+        return bound.and(past(path, value).or(same.and(then)));
+    }
+
+    private BooleanExpression pastExecutor(Long executorId, BooleanExpression then) {
+        if (executorId == null) {
+            return ascending
+                    ? TASK.executor.id.isNull().and(then)
+                    : TASK.executor.id.isNotNull().or(TASK.executor.id.isNull().and(then));
+        }
+
+        BooleanExpression past = past(TASK.executor.id, executorId, then);
+        return ascending ? past.or(TASK.executor.id.isNull()) : past;
+    }
+}
@@ -1,7 +1,15 @@
 package hexlet.code.util.exception;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 public class EntityNotFoundException extends RuntimeException {
     public EntityNotFoundException(String entityName, Long id) {
         super(entityName + " with id=" + id + " not found!");
     }
+
+    public EntityNotFoundException(String entityName, Collection<Long> ids) {
+        super(entityName + " with id=" + ids.stream().map(String::valueOf).collect(Collectors.joining(", "))
+                + " not found!");
+    }
 }
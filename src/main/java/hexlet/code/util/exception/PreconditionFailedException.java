@@ -0,0 +1,7 @@
+package hexlet.code.util.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String entityName, Long id) {
+        super(entityName + " with id=" + id + " was changed by another request!");
+    }
+}
@@ -0,0 +1,7 @@
+package hexlet.code.util.exception;
+
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException() {
+        super("Request with this Idempotency-Key is still in progress!");
+    }
+}
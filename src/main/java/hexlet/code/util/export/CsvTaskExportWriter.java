@@ -0,0 +1,60 @@
+package hexlet.code.util.export;
+
+import hexlet.code.dto.task.TaskExportRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+public class CsvTaskExportWriter implements TaskExportWriter {
+    private static final String HEADER = "id,name,description,taskStatus,author,executor,labels,createdAt";
+    private static final String LABEL_SEPARATOR = ";";
+
+    private final Writer writer;
+
+    public CsvTaskExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.writer.write(HEADER);
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void write(TaskExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writeCell(row.getName());
+        writeCell(row.getDescription());
+        writeCell(row.getTaskStatus());
+        writeCell(row.getAuthor());
+        writeCell(row.getExecutor());
+        writeCell(String.join(LABEL_SEPARATOR, row.getLabels()));
+        writeCell(row.getCreatedAt());
+        writer.write('\n');
+    }
+
+    /**
+     * Flushes buffered rows, the underlying stream stays open.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCell(String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package hexlet.code.util.export;
+
+import hexlet.code.dto.task.TaskExportRow;
+import hexlet.code.util.exception.BadDataException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads CSV written like CsvTaskExportWriter does: a header naming the columns, values with commas, quotes
+ * or line breaks quoted, labels joined with ";". Columns are found by the header, name and taskStatus are required.
+ */
+public class CsvTaskImportReader implements TaskImportReader {
+    private static final String LABEL_SEPARATOR = ";";
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int line = 1;
+
+    public CsvTaskImportReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new BadDataException("CSV has to start with a header");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("taskStatus")) {
+            throw new BadDataException("CSV header has to contain name and taskStatus columns");
+        }
+    }
+
+    @Override
+    public TaskImportLine next() throws IOException {
+        int start;
+        List<String> cells;
+        do {
+            start = line;
+            cells = readRecord();
+        } while (cells != null && cells.size() == 1 && cells.get(0).isBlank());
+
+        if (cells == null) {
+            return null;
+        }
+
+        TaskExportRow row = new TaskExportRow();
+        row.setName(cell(cells, "name"));
+        row.setDescription(cell(cells, "description"));
+        row.setTaskStatus(cell(cells, "taskStatus"));
+        row.setExecutor(cell(cells, "executor"));
+        String labels = cell(cells, "labels");
+        if (labels != null) {
+            Arrays.stream(labels.split(LABEL_SEPARATOR))
+                    .filter(label -> !label.isBlank())
+                    .forEach(row.getLabels()::add);
+        }
+
+        return new TaskImportLine(start, row, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Empty cells and missing columns are read as null, like the export writes null values
+    private String cell(List<String> cells, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= cells.size() || cells.get(index).isEmpty()) {
+            return null;
+        }
+        return cells.get(index);
+    }
+
+    // Returns null at the end of the input
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean cellStart = true;
+        boolean empty = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cellStart) {
+                quoted = true;
+                cellStart = false;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                cellStart = true;
+            } else if (c == '\n') {
+                line++;
+                cells.add(cell.toString());
+                return cells;
+            } else if (c != '\r') {
+                cell.append((char) c);
+                cellStart = false;
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("Quoted value starting before line " + line + " is not closed");
+        }
+        if (empty) {
+            return null;
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
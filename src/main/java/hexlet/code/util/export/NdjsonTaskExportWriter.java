@@ -0,0 +1,32 @@
+package hexlet.code.util.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.task.TaskExportRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class NdjsonTaskExportWriter implements TaskExportWriter {
+    private final JsonGenerator generator;
+
+    public NdjsonTaskExportWriter(OutputStream out, ObjectMapper mapper) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(TaskExportRow row) throws IOException {
+        generator.writeObject(row);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Flushes buffered rows, the underlying stream stays open.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
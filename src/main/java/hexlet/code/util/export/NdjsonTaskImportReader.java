@@ -0,0 +1,49 @@
+package hexlet.code.util.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import hexlet.code.dto.task.TaskExportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public class NdjsonTaskImportReader implements TaskImportReader {
+    private final BufferedReader reader;
+    private final ObjectReader rowReader;
+    private int line;
+
+    public NdjsonTaskImportReader(InputStream in, ObjectMapper mapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.rowReader = mapper.readerFor(TaskExportRow.class);
+    }
+
+    // Each line gets its own parser, a broken line does not leave the following ones unreadable
+    @Override
+    public TaskImportLine next() throws IOException {
+        String value;
+        do {
+            value = reader.readLine();
+            line++;
+        } while (value != null && value.isBlank());
+
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            TaskExportRow row = rowReader.readValue(value);
+            return new TaskImportLine(line, row, null);
+        } catch (JsonProcessingException e) {
+            return new TaskImportLine(line, null, "Line is not a valid task: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,20 @@
+package hexlet.code.util.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.task.TaskExportRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TaskExportWriter extends Closeable {
+
+    void write(TaskExportRow row) throws IOException;
+
+    static TaskExportWriter of(ExportFormat format, OutputStream out, ObjectMapper mapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonTaskExportWriter(out, mapper);
+            case CSV -> new CsvTaskExportWriter(out);
+        };
+    }
+}
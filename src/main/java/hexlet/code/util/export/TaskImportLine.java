@@ -0,0 +1,17 @@
+package hexlet.code.util.export;
+
+import hexlet.code.dto.task.TaskExportRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One task read from an import, or the reason it could not be read.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskImportLine {
+    // Line of the input the task starts at
+    private int line;
+    private TaskExportRow row;
+    private String error;
+}
@@ -0,0 +1,27 @@
+package hexlet.code.util.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads tasks one by one in the layout of the export, so an export can be imported back.
+ * Id, author and createdAt of a row are ignored.
+ */
+public interface TaskImportReader extends Closeable {
+
+    /**
+     * @return next task, or the error of a line that can not be read, null at the end of the input
+     * @throws IOException if the input itself can not be read further
+     */
+    TaskImportLine next() throws IOException;
+
+    static TaskImportReader of(ExportFormat format, InputStream in, ObjectMapper mapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonTaskImportReader(in, mapper);
+            case CSV -> new CsvTaskImportReader(in);
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.types.Predicate;
+import hexlet.code.dto.task.CreateTaskDTO;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.user.CreateUserDTO;
+import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Status;
+import hexlet.code.model.Task;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.StatusRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.security.JWTUtils;
+import hexlet.code.service.TaskService;
+import hexlet.code.service.UserService;
+import hexlet.code.util.ModelToCreateGenerator;
+import hexlet.code.util.NamedRoutes;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskFilterSpec;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "task-index.enabled=true")
+@AutoConfigureMockMvc
+public class TaskBitmapIndexTest {
+    @Value("${base-url}")
+    private String baseUrl;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TaskBitmapIndex taskBitmapIndex;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StatusRepository statusRepository;
+    @Autowired
+    private LabelRepository labelRepository;
+    @Autowired
+    private ModelToCreateGenerator createGenerator;
+    @Autowired
+    private JWTUtils jwtUtils;
+    @Autowired
+    private ObjectMapper mapper;
+    private String token;
+    private User user;
+    private Status todo;
+    private Status done;
+    private Label bug;
+    private Label feature;
+    private Task first;
+    private Task second;
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        statusRepository.deleteAll();
+        labelRepository.deleteAll();
+
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        token = "Bearer " + jwtUtils.generateToken(userDTO.getEmail());
+        user = userRepository.findById(userService.save(userDTO).getId()).get();
+
+        todo = statusRepository.save(new Status("To do"));
+        done = statusRepository.save(new Status("Done"));
+        bug = labelRepository.save(new Label("bug"));
+        feature = labelRepository.save(new Label("feature"));
+
+        first = save("First", todo, Set.of(bug));
+        second = save("Second", done, Set.of(bug, feature));
+
+        // Repository saves publish no events
+        taskBitmapIndex.rebuild();
+    }
+
+    @Test
+    public void testFindIds() {
+        QTask task = QTask.task;
+
+        assertEquals(List.of(first.getId(), second.getId()), findIds(task.labels.any().id.eq(bug.getId())));
+        assertEquals(List.of(second.getId()), findIds(task.labels.any().id.eq(feature.getId())
+                .and(task.author.id.eq(user.getId()))));
+        assertEquals(List.of(first.getId()), findIds(task.taskStatus.eq(todo)));
+        assertEquals(List.of(), findIds(task.taskStatus.eq(todo).and(task.labels.any().id.eq(feature.getId()))));
+        assertEquals(List.of(), findIds(task.executor.id.eq(user.getId())));
+        assertTrue(taskBitmapIndex.findIds(TaskFilterSpec.of(null).get()).isEmpty());
+
+        List<ResponseTaskDTO> tasks = taskService.findAll(task.labels.any().id.eq(feature.getId()), SparseFields.all());
+        assertEquals(1, tasks.size());
+        assertEquals("Second", tasks.get(0).getName());
+        assertEquals(2, tasks.get(0).getLabels().size());
+    }
+
+    @Test
+    public void testFollowsChanges() throws Exception {
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Third");
+        data.setTaskStatusId(todo.getId());
+        data.setExecutorId(user.getId());
+        data.setLabelIds(Set.of(feature.getId()));
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isCreated());
+
+        Long id = taskRepository.findAll().stream()
+                .filter(task -> task.getName().equals("Third"))
+                .findFirst().get().getId();
+
+        assertEquals(List.of(id), findIds(QTask.task.executor.id.eq(user.getId())));
+        assertEquals(List.of(first.getId(), id), findIds(QTask.task.taskStatus.eq(todo)));
+    }
+
+    @Test
+    public void testCheck() {
+        taskRepository.deleteById(first.getId());
+
+        // The index still has the task, the rows fetched by id do not
+        assertTrue(findIds(QTask.task.taskStatus.eq(todo)).contains(first.getId()));
+        assertTrue(taskService.findAll(QTask.task.taskStatus.eq(todo), SparseFields.all()).isEmpty());
+
+        taskBitmapIndex.check();
+
+        assertFalse(findIds(QTask.task.taskStatus.eq(todo)).contains(first.getId()));
+        assertEquals(List.of(second.getId()), findIds(QTask.task.labels.any().id.eq(bug.getId())));
+    }
+
+    private Task save(String name, Status status, Set<Label> labels) {
+        Task task = new Task();
+        task.setName(name);
+        task.setTaskStatus(status);
+        task.setAuthor(user);
+        task.setLabels(labels);
+        return taskRepository.save(task);
+    }
+
+    private List<Long> findIds(Predicate predicate) {
+        return taskBitmapIndex.findIds(TaskFilterSpec.of(predicate).get()).get();
+    }
+}
@@ -0,0 +1,150 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.StatusDTO;
+import hexlet.code.dto.task.CreateTaskDTO;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.user.CreateUserDTO;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Status;
+import hexlet.code.model.Task;
+import hexlet.code.model.User;
+import hexlet.code.repository.LabelRepository;
+import hexlet.code.repository.StatusRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.security.JWTUtils;
+import hexlet.code.service.TaskService;
+import hexlet.code.service.UserService;
+import hexlet.code.util.ModelToCreateGenerator;
+import hexlet.code.util.NamedRoutes;
+import hexlet.code.util.SparseFields;
+import hexlet.code.util.TaskFilterSpec;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "task-cache.enabled=true")
+@AutoConfigureMockMvc
+public class TaskListCacheTest {
+    @Value("${base-url}")
+    private String baseUrl;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TaskListCache taskListCache;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StatusRepository statusRepository;
+    @Autowired
+    private LabelRepository labelRepository;
+    @Autowired
+    private ModelToCreateGenerator createGenerator;
+    @Autowired
+    private JWTUtils jwtUtils;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private String token;
+    private Status todo;
+    private Status done;
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        statusRepository.deleteAll();
+        labelRepository.deleteAll();
+        taskListCache.invalidateAll();
+
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        token = "Bearer " + jwtUtils.generateToken(userDTO.getEmail());
+        User user = userRepository.findById(userService.save(userDTO).getId()).get();
+
+        todo = statusRepository.save(new Status("To do"));
+        done = statusRepository.save(new Status("Done"));
+
+        Task task = new Task();
+        task.setName("Cached task");
+        task.setTaskStatus(todo);
+        task.setAuthor(user);
+        taskRepository.save(task);
+    }
+
+    @Test
+    public void testSpecIgnoresOrder() {
+        QTask task = QTask.task;
+
+        assertEquals(TaskFilterSpec.of(task.author.id.eq(1L).and(task.taskStatus.eq(todo))),
+                TaskFilterSpec.of(task.taskStatus.id.eq(todo.getId()).and(task.author.id.eq(1L))));
+        assertTrue(TaskFilterSpec.of(task.labels.any().id.eq(1L)).isPresent());
+        assertTrue(TaskFilterSpec.of(task.name.eq("Cached task")).isEmpty());
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        assertEquals(1, findByStatus(todo).size());
+        assertEquals(0, findByStatus(done).size());
+
+        statistics.clear();
+        findByStatus(todo);
+        findByStatus(done);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Done task");
+        data.setTaskStatusId(done.getId());
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isCreated());
+
+        // Only the list the new task belongs to is dropped
+        statistics.clear();
+        assertEquals(1, findByStatus(todo).size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, findByStatus(done).size());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+
+        mockMvc.perform(put(baseUrl + NamedRoutes.statusPath(todo.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new StatusDTO("Backlog"))))
+                .andExpect(status().isOk());
+
+        assertEquals("Backlog", findByStatus(todo).get(0).getTaskStatus().getName());
+    }
+
+    private List<ResponseTaskDTO> findByStatus(Status status) {
+        return taskService.findAll(QTask.task.taskStatus.eq(status), SparseFields.all());
+    }
+}
@@ -0,0 +1,168 @@
+package hexlet.code.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.dto.task.CreateTaskDTO;
+import hexlet.code.dto.user.CreateUserDTO;
+import hexlet.code.event.TaskEventConsumer;
+import hexlet.code.event.TaskEventMessage;
+import hexlet.code.model.Status;
+import hexlet.code.model.TaskOutboxEvent;
+import hexlet.code.repository.StatusRepository;
+import hexlet.code.repository.TaskOutboxRepository;
+import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.UserRepository;
+import hexlet.code.security.JWTUtils;
+import hexlet.code.service.UserService;
+import hexlet.code.util.ModelToCreateGenerator;
+import hexlet.code.util.NamedRoutes;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TaskOutboxTest {
+    @Value("${base-url}")
+    private String baseUrl;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TaskOutbox taskOutbox;
+    @Autowired
+    private RecordingConsumer consumer;
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StatusRepository statusRepository;
+    @Autowired
+    private ModelToCreateGenerator createGenerator;
+    @Autowired
+    private JWTUtils jwtUtils;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    private String token;
+    private Status status;
+
+    @TestConfiguration
+    static class ConsumerConfig {
+        @Bean
+        public RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements TaskEventConsumer {
+        private final List<TaskEventMessage> received = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public void consume(List<TaskEventMessage> messages) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Consumer is down");
+            }
+            received.addAll(messages);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        statusRepository.deleteAll();
+        taskOutbox.drain();
+        consumer.received.clear();
+
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        token = "Bearer " + jwtUtils.generateToken(userDTO.getEmail());
+        userService.save(userDTO);
+        status = statusRepository.save(new Status("Outbox status"));
+    }
+
+    @Test
+    public void testDrain() throws Exception {
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Outbox task");
+        data.setTaskStatusId(status.getId());
+        String body = mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long id = mapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(id))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Renamed outbox task\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete(baseUrl + NamedRoutes.taskPath(id))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        // A change rolled back leaves nothing in the outbox
+        data.setTaskStatusId(-1L);
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isNotFound());
+
+        assertEquals(List.of(TaskOutboxEvent.Type.CREATED, TaskOutboxEvent.Type.UPDATED,
+                TaskOutboxEvent.Type.DELETED), outboxRepository.findAll().stream()
+                .sorted((first, second) -> first.getId().compareTo(second.getId()))
+                .map(TaskOutboxEvent::getType)
+                .toList());
+
+        double failures = meterRegistry.get("task.outbox.failures").counter().count();
+        consumer.failNext = true;
+        taskOutbox.drain();
+        assertEquals(failures + 1, meterRegistry.get("task.outbox.failures").counter().count());
+        assertEquals(3, outboxRepository.count());
+        assertEquals(3.0, meterRegistry.get("task.outbox.pending").gauge().value());
+
+        taskOutbox.drain();
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0.0, meterRegistry.get("task.outbox.pending").gauge().value());
+        assertEquals(0.0, meterRegistry.get("task.outbox.lag").gauge().value());
+
+        List<TaskEventMessage> received = consumer.received;
+        assertEquals(3, received.size());
+        assertNull(received.get(0).getEvent().getBefore());
+        assertEquals(id, received.get(0).getEvent().getAfter().getId());
+        assertEquals(status.getId(), received.get(1).getEvent().getAfter().getTaskStatusId());
+        assertEquals(id, received.get(2).getEvent().getBefore().getId());
+        assertNull(received.get(2).getEvent().getAfter());
+    }
+}
@@ -93,6 +93,30 @@ public class StatusControllerTest {
         assertThatJson(body).isArray();
     }
 
+    @Test
+    public void testShowNotModified() throws Exception {
+        String etag = mockMvc.perform(get(baseUrl + NamedRoutes.statusPath(statusId)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.statusPath(statusId)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(baseUrl + NamedRoutes.statusesPath()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        StatusDTO data = new StatusDTO("Новый");
+        mockMvc.perform(put(baseUrl + NamedRoutes.statusPath(statusId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.statusPath(statusId)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void testCreate() throws Exception {
         StatusDTO data = new StatusDTO("Новый");
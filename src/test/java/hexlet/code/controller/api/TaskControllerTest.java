@@ -1,15 +1,25 @@
 package hexlet.code.controller.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import hexlet.code.component.ChangeSequence;
+import hexlet.code.component.TaskCounters;
 import hexlet.code.dto.task.CreateTaskDTO;
+import hexlet.code.dto.task.ResponseTaskDTO;
+import hexlet.code.dto.task.TaskChangesDTO;
+import hexlet.code.dto.task.TaskCountersDTO;
 import hexlet.code.dto.user.CreateUserDTO;
 import hexlet.code.model.Label;
+import hexlet.code.model.QTask;
 import hexlet.code.model.Status;
 import hexlet.code.model.Task;
 import hexlet.code.model.User;
 import hexlet.code.repository.LabelRepository;
 import hexlet.code.repository.StatusRepository;
 import hexlet.code.repository.TaskRepository;
+import hexlet.code.repository.TaskTombstoneRepository;
 import hexlet.code.repository.UserRepository;
 import hexlet.code.security.JWTUtils;
 import hexlet.code.service.TaskService;
@@ -17,6 +27,9 @@ import hexlet.code.service.UserService;
 import hexlet.code.util.FileReader;
 import hexlet.code.util.ModelToCreateGenerator;
 import hexlet.code.util.NamedRoutes;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,8 +41,25 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -37,10 +67,13 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -68,6 +101,16 @@ public class TaskControllerTest {
     private ObjectMapper mapper;
     @Autowired
     private JWTUtils jwtUtils;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TaskCounters taskCounters;
+    @Autowired
+    private TaskTombstoneRepository tombstoneRepository;
+    @Autowired
+    private ChangeSequence changeSequence;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     private String token;
     private Long userId;
     private Long statusId;
@@ -141,6 +184,789 @@ public class TaskControllerTest {
         assertTrue(body.contains("TaskWithLabel"));
     }
 
+    @Test
+    public void testIndexWithLabelFilters() throws Exception {
+        Label bug = labelRepository.save(new Label("bug"));
+        Label feature = labelRepository.save(new Label("feature"));
+        Status status = statusRepository.findById(statusId).get();
+        Status done = statusRepository.save(new Status("Done"));
+        User user = userRepository.findById(userId).get();
+
+        for (Label label : List.of(bug, feature)) {
+            Task task = new Task();
+            task.setName("Only " + label.getName());
+            task.setTaskStatus(status);
+            task.setAuthor(user);
+            task.setLabels(Set.of(label));
+            taskRepository.save(task);
+        }
+        Task both = new Task();
+        both.setName("Both labels");
+        both.setTaskStatus(done);
+        both.setAuthor(user);
+        both.setLabels(Set.of(bug, feature));
+        taskRepository.save(both);
+
+        assertEquals(List.of("Only bug", "Only feature", "Both labels"),
+                findNames("labelsId", bug.getId(), feature.getId()));
+        assertEquals(List.of("Both labels"), findNames("labelsAllId", bug.getId(), feature.getId()));
+        assertEquals(List.of("Only bug", "Both labels"), findNames("labelsAllId", bug.getId()));
+        assertEquals(4, findNames("taskStatus", statusId, done.getId()).size());
+        assertEquals(List.of("Both labels"), findNames("taskStatus", done.getId()));
+    }
+
+    @Test
+    public void testLabelFiltersUseSubqueries() {
+        QTask task = QTask.task;
+        Predicate all = task.labels.any().id.eq(1L).and(task.labels.any().id.eq(2L));
+
+        String query = new JPAQuery<>().from(task).where(all).toString().toLowerCase();
+
+        assertEquals(2, query.split("exists").length - 1, query);
+        assertFalse(query.contains("distinct"), query);
+    }
+
+    @Test
+    public void testIndexQueryCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < 5; i++) {
+            CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+            User executor = userRepository.findById(userService.save(userDTO).getId()).get();
+            Status status = statusRepository.save(new Status("Status " + i));
+            Label label = labelRepository.save(new Label("Label " + i));
+
+            Task task = new Task();
+            task.setName("Task " + i);
+            task.setTaskStatus(status);
+            task.setAuthor(executor);
+            task.setExecutor(executor);
+            task.setLabels(Set.of(label));
+            taskRepository.save(task);
+        }
+
+        var request = get(baseUrl + NamedRoutes.tasksPath())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        statistics.clear();
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).isArray().hasSize(6);
+        // Five queries for the ETag, two of them index lookups of the last task change, then rows and labels
+        assertEquals(7, statistics.getPrepareStatementCount());
+
+        var pageRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "10")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        statistics.clear();
+        mockMvc.perform(pageRequest).andExpect(status().isOk());
+
+        assertEquals(7, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testIndexFields() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        var request = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("fields", "id,name,author.email")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        statistics.clear();
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // Labels are not requested, so only the ETag queries and the rows query run
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertThatJson(body).isArray().hasSize(1);
+        assertThatJson(body).node("[0]").isObject().containsOnlyKeys("id", "name", "author");
+        assertThatJson(body).node("[0].author").isObject().containsOnlyKeys("email");
+
+        var showRequest = get(baseUrl + NamedRoutes.taskPath(taskId))
+                .queryParam("fields", "name,taskStatus")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String showBody = mockMvc.perform(showRequest)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThatJson(showBody).isObject().containsOnlyKeys("name", "taskStatus");
+        assertThatJson(showBody).node("taskStatus.name").isEqualTo("В работе");
+
+        var wrongRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("fields", "id,password")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        mockMvc.perform(wrongRequest).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testIndexRowsMatchShow() throws Exception {
+        Label label = labelRepository.save(new Label("projected"));
+        Task task = taskRepository.findById(taskId).get();
+        task.setExecutor(userRepository.findById(userId).get());
+        task.setLabels(Set.of(label));
+        taskRepository.save(task);
+
+        var indexRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String indexBody = mockMvc.perform(indexRequest)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        var showRequest = get(baseUrl + NamedRoutes.taskPath(taskId))
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String showBody = mockMvc.perform(showRequest)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(indexBody).node("[0]").isEqualTo(showBody);
+    }
+
+    @Test
+    public void testIndexPage() throws Exception {
+        Status status = statusRepository.findById(statusId).get();
+        User user = userRepository.findById(userId).get();
+
+        for (String name : List.of("SecondTask", "ThirdTask")) {
+            Task task = new Task();
+            task.setName(name);
+            task.setTaskStatus(status);
+            task.setAuthor(user);
+            taskRepository.save(task);
+        }
+
+        var firstRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "2")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String firstBody = mockMvc.perform(firstRequest)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(firstBody).node("content").isArray().hasSize(2);
+        assertThatJson(firstBody).node("content[0].name").isEqualTo("TaskWithoutLabel");
+        String nextCursor = mapper.readTree(firstBody).get("nextCursor").asText();
+
+        var secondRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "2")
+                .queryParam("after", nextCursor)
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String secondBody = mockMvc.perform(secondRequest)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(secondBody).node("content").isArray().hasSize(1);
+        assertThatJson(secondBody).node("content[0].name").isEqualTo("ThirdTask");
+        assertThatJson(secondBody).node("nextCursor").isNull();
+    }
+
+    @Test
+    public void testIndexPageSorted() throws Exception {
+        Status status = statusRepository.findById(statusId).get();
+        User user = userRepository.findById(userId).get();
+
+        for (String name : List.of("Alpha", "Omega", "Beta")) {
+            Task task = new Task();
+            task.setName(name);
+            task.setTaskStatus(status);
+            task.setAuthor(user);
+            task.setExecutor(name.equals("Omega") ? null : user);
+            taskRepository.save(task);
+        }
+
+        // Tasks without executor, TaskWithoutLabel and Omega, come last in ascending order
+        assertEquals(List.of("TaskWithoutLabel", "Omega", "Beta", "Alpha"), findPages("name,desc"));
+        assertEquals(List.of("Alpha", "Beta", "TaskWithoutLabel", "Omega"), findPages("executor"));
+        assertEquals(List.of("Omega", "TaskWithoutLabel", "Beta", "Alpha"), findPages("executor,desc"));
+        assertEquals(List.of("Beta", "Omega", "Alpha", "TaskWithoutLabel"), findPages("createdAt,desc"));
+
+        var request = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("sort", "description")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        mockMvc.perform(request).andExpect(status().isUnprocessableEntity());
+
+        String firstBody = mockMvc.perform(get(baseUrl + NamedRoutes.tasksPath())
+                        .queryParam("limit", "1")
+                        .queryParam("sort", "name"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        var otherSortRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "1")
+                .queryParam("sort", "createdAt")
+                .queryParam("after", mapper.readTree(firstBody).get("nextCursor").asText());
+        mockMvc.perform(otherSortRequest).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testIndexPageError() throws Exception {
+        var request = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "0")
+                .header(HttpHeaders.AUTHORIZATION, token);
+
+        mockMvc.perform(request).andExpect(status().isUnprocessableEntity());
+
+        var cursorRequest = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam("limit", "10")
+                .queryParam("after", "not-a-cursor")
+                .header(HttpHeaders.AUTHORIZATION, token);
+
+        mockMvc.perform(cursorRequest).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testExportNdjson() throws Exception {
+        Label first = labelRepository.save(new Label("first"));
+        Label second = labelRepository.save(new Label("second"));
+        Task task = taskRepository.findById(taskId).get();
+        task.setLabels(Set.of(first, second));
+        taskRepository.save(task);
+
+        var request = get(baseUrl + NamedRoutes.tasksExportPath())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(1, lines.length);
+        assertThatJson(lines[0]).and(
+                v -> v.node("name").isEqualTo("TaskWithoutLabel"),
+                v -> v.node("taskStatus").isEqualTo("В работе"),
+                v -> v.node("labels").isEqualTo("[\"first\",\"second\"]")
+        );
+    }
+
+    @Test
+    public void testExportCsv() throws Exception {
+        var request = get(baseUrl + NamedRoutes.tasksExportPath())
+                .queryParam("format", "csv")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,name,description"));
+        assertTrue(lines[1].startsWith(taskId + ",TaskWithoutLabel,,В работе,"));
+    }
+
+    @Test
+    public void testImportNdjsonGzip() throws Exception {
+        labelRepository.save(new Label("imported"));
+        String email = userRepository.findById(userId).get().getEmail();
+        String ndjson = String.join("\n",
+                "{\"name\": \"Imported 1\", \"taskStatus\": \"В работе\", \"executor\": \"" + email + "\", "
+                        + "\"labels\": [\"imported\"]}",
+                "{\"name\": \"Imported 2\", \"taskStatus\": \"Unknown\"}",
+                "{\"name\": ",
+                "",
+                "{\"name\": \" \", \"taskStatus\": \"В работе\"}",
+                "{\"name\": \"Imported 3\", \"taskStatus\": \"В работе\", \"id\": 1, \"author\": \"x\"}",
+                "{\"name\": \"Imported 4\", \"taskStatus\": \"В работе\", \"labels\": [\"missing\"]}");
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String body = mockMvc.perform(post(baseUrl + NamedRoutes.tasksImportPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .contentType("application/x-ndjson")
+                        .content(gzip.toByteArray()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("imported").isEqualTo(2);
+        assertThatJson(body).node("failed").isEqualTo(4);
+        List<String> errors = new ArrayList<>();
+        mapper.readTree(body).get("errors")
+                .forEach(error -> errors.add(error.get("index") + ":" + error.get("status")));
+        assertEquals(List.of("2:404", "3:422", "5:422", "7:404"), errors);
+
+        Task imported = taskRepository.findByName("Imported 1").get();
+        assertEquals(userId, imported.getAuthor().getId());
+        assertEquals(userId, imported.getExecutor().getId());
+        assertEquals(1, findLabelIds(imported.getId()).size());
+        assertTrue(taskRepository.findByName("Imported 3").isPresent());
+    }
+
+    @Test
+    public void testImportCsv() throws Exception {
+        String csv = "id,name,description,taskStatus,author,executor,labels,createdAt\n"
+                + "1,\"Imported, with comma\",\"Two\nlines\",В работе,,,,\n"
+                + "2,Imported plain,,Unknown,,,,\n"
+                + "3,\"Imported \"\"quoted\"\"\",,В работе,,,,\n"
+                + "4,Imported too long," + "d".repeat(256) + ",В работе,,,,\n";
+
+        String body = mockMvc.perform(post(baseUrl + NamedRoutes.tasksImportPath())
+                        .queryParam("format", "csv")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("imported").isEqualTo(2);
+        assertThatJson(body).node("errors[0].index").isEqualTo(4);
+        assertThatJson(body).node("errors[1].index").isEqualTo(6);
+        assertThatJson(body).node("errors[1].status").isEqualTo(422);
+        assertTrue(taskRepository.findByName("Imported too long").isEmpty());
+        assertEquals("Two\nlines", taskRepository.findByName("Imported, with comma").get().getDescription());
+        assertTrue(taskRepository.findByName("Imported \"quoted\"").isPresent());
+
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksImportPath())
+                        .queryParam("format", "csv")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .content("id,title\n1,Task".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksImportPath())
+                        .content(new byte[0]))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testExportWrongFormat() throws Exception {
+        var request = get(baseUrl + NamedRoutes.tasksExportPath())
+                .queryParam("format", "xml")
+                .header(HttpHeaders.AUTHORIZATION, token);
+
+        mockMvc.perform(request).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testBulkCreate() throws Exception {
+        Label label = labelRepository.save(new Label("bulk"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CreateTaskDTO> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CreateTaskDTO data = new CreateTaskDTO();
+            data.setName("Bulk task " + i);
+            data.setTaskStatusId(statusId);
+            data.setExecutorId(userId);
+            data.setLabelIds(Set.of(label.getId()));
+            tasks.add(data);
+        }
+        tasks.add(new CreateTaskDTO());
+        CreateTaskDTO missingExecutor = new CreateTaskDTO();
+        missingExecutor.setName("Missing executor");
+        missingExecutor.setTaskStatusId(statusId);
+        missingExecutor.setExecutorId(userId + 1000);
+        tasks.add(missingExecutor);
+
+        var request = post(baseUrl + NamedRoutes.tasksBulkPath())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(tasks));
+        statistics.clear();
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // Lookups, sequence calls and insert batches, not a statement per task
+        assertTrue(statistics.getPrepareStatementCount() < 15, "" + statistics.getPrepareStatementCount());
+        assertThatJson(body).node("succeeded").isEqualTo(20);
+        assertThatJson(body).node("failed").isEqualTo(2);
+        assertThatJson(body).node("items[0].status").isEqualTo(201);
+        assertThatJson(body).node("items[20].status").isEqualTo(422);
+        assertThatJson(body).node("items[21].status").isEqualTo(404);
+        assertThatJson(body).node("items[21].error").isString().contains("Executor");
+
+        Long id = mapper.readTree(body).get("items").get(19).get("id").asLong();
+        Task task = taskRepository.findDetailedById(id).get();
+        assertEquals("Bulk task 19", task.getName());
+        assertEquals(userId, task.getAuthor().getId());
+        assertEquals(Set.of(label.getId()), Set.of(task.getLabels().iterator().next().getId()));
+        assertEquals(21, taskRepository.count());
+    }
+
+    @Test
+    public void testBulkCreateUnauthorized() throws Exception {
+        var request = post(baseUrl + NamedRoutes.tasksBulkPath())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(new CreateTaskDTO())));
+
+        mockMvc.perform(request).andExpect(status().isUnauthorized());
+        assertEquals(1, taskRepository.count());
+    }
+
+    @Test
+    public void testBulkUpdate() throws Exception {
+        taskCounters.rebuild();
+        Label oldLabel = labelRepository.save(new Label("old"));
+        Label newLabel = labelRepository.save(new Label("new"));
+        Status status = statusRepository.findById(statusId).get();
+        Status done = statusRepository.save(new Status("Done"));
+        User user = userRepository.findById(userId).get();
+
+        Task labeled = new Task();
+        labeled.setName("Labeled");
+        labeled.setTaskStatus(status);
+        labeled.setAuthor(user);
+        labeled.setExecutor(user);
+        labeled.setLabels(Set.of(oldLabel));
+        taskRepository.save(labeled);
+        Task other = new Task();
+        other.setName("Other");
+        other.setTaskStatus(done);
+        other.setAuthor(user);
+        taskRepository.save(other);
+        taskCounters.rebuild();
+
+        Map<String, Object> data = Map.of(
+                "taskStatusId", done.getId(),
+                "addLabelIds", List.of(newLabel.getId()),
+                "removeLabelIds", List.of(oldLabel.getId()));
+        var request = put(baseUrl + NamedRoutes.tasksBulkPath())
+                .queryParam("taskStatus", statusId.toString())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(data));
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("affected").isEqualTo(2);
+        Task updated = taskRepository.findDetailedById(labeled.getId()).get();
+        assertEquals(done.getId(), updated.getTaskStatus().getId());
+        assertEquals(newLabel.getId(), updated.getLabels().iterator().next().getId());
+        assertEquals(1, updated.getLabels().size());
+        assertEquals(labeled.getVersion() + 1, updated.getVersion());
+        assertEquals(0, taskRepository.findDetailedById(other.getId()).get().getLabels().size());
+
+        Map<String, Object> unassign = new HashMap<>();
+        unassign.put("ids", List.of(labeled.getId()));
+        unassign.put("executorId", null);
+        mockMvc.perform(put(baseUrl + NamedRoutes.tasksBulkPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(unassign)))
+                .andExpect(status().isOk());
+        assertNull(taskRepository.findDetailedById(labeled.getId()).get().getExecutor());
+
+        TaskCountersDTO counters = taskCounters.getCounters();
+        assertEquals(3, counters.getByStatus().get(done.getId()));
+        assertEquals(2, counters.getByLabel().get(newLabel.getId()));
+        assertNull(counters.getByLabel().get(oldLabel.getId()));
+        assertEquals(3, counters.getUnassigned());
+    }
+
+    @Test
+    public void testBulkUpdateErrors() throws Exception {
+        String change = mapper.writeValueAsString(Map.of("taskStatusId", statusId));
+
+        mockMvc.perform(put(baseUrl + NamedRoutes.tasksBulkPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(change))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(put(baseUrl + NamedRoutes.tasksBulkPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Map.of("ids", List.of(taskId), "taskStatusId", -1))))
+                .andExpect(status().isNotFound());
+        List<Long> tooMany = LongStream.rangeClosed(1, TaskService.MAX_BULK_SIZE + 1).boxed().toList();
+        mockMvc.perform(put(baseUrl + NamedRoutes.tasksBulkPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Map.of("ids", tooMany, "taskStatusId", statusId))))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(put(baseUrl + NamedRoutes.tasksBulkPath())
+                        .queryParam("taskStatus", statusId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(change))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+        Label label = labelRepository.save(new Label("counted"));
+        Status status = statusRepository.findById(statusId).get();
+        User user = userRepository.findById(userId).get();
+
+        Task task = new Task();
+        task.setName("AssignedTask");
+        task.setTaskStatus(status);
+        task.setAuthor(user);
+        task.setExecutor(user);
+        task.setLabels(Set.of(label));
+        taskRepository.save(task);
+
+        var request = get(baseUrl + NamedRoutes.tasksCountsPath())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("total").isEqualTo(2);
+        assertThatJson(body).node("unassigned").isEqualTo(1);
+        assertThatJson(body).node("byStatus." + statusId).isEqualTo(2);
+        assertThatJson(body).node("byExecutor." + userId).isEqualTo(1);
+        assertThatJson(body).node("byAuthor." + userId).isEqualTo(2);
+        assertThatJson(body).node("byLabel." + label.getId()).isEqualTo(1);
+        assertThatJson(body).node("createdPerDay").isObject().hasSize(1);
+
+        var filtered = get(baseUrl + NamedRoutes.tasksCountsPath())
+                .queryParam("labelsId", label.getId().toString())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String filteredBody = mockMvc.perform(filtered)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(filteredBody).node("total").isEqualTo(1);
+        assertThatJson(filteredBody).node("unassigned").isEqualTo(0);
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        taskCounters.rebuild();
+        Label label = labelRepository.save(new Label("counted"));
+
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Counted task");
+        data.setExecutorId(userId);
+        data.setTaskStatusId(statusId);
+        data.setLabelIds(Set.of(label.getId()));
+
+        var request = post(baseUrl + NamedRoutes.tasksPath())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(data));
+        mockMvc.perform(request).andExpect(status().isCreated());
+
+        String body = mockMvc.perform(get(baseUrl + NamedRoutes.tasksCountersPath()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("total").isEqualTo(2);
+        assertThatJson(body).node("unassigned").isEqualTo(1);
+        assertThatJson(body).node("byStatus." + statusId).isEqualTo(2);
+        assertThatJson(body).node("byExecutor." + userId).isEqualTo(1);
+        assertThatJson(body).node("byLabel." + label.getId()).isEqualTo(1);
+
+        Long createdId = taskRepository.findByName(data.getName()).get().getId();
+        mockMvc.perform(delete(baseUrl + NamedRoutes.taskPath(createdId)).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        TaskCountersDTO counters = taskCounters.getCounters();
+        assertEquals(1, counters.getTotal());
+        assertTrue(counters.getByLabel().isEmpty());
+        assertTrue(counters.getByExecutor().isEmpty());
+    }
+
+    @Test
+    public void testCountersReconcile() throws Exception {
+        taskCounters.rebuild();
+        taskRepository.deleteAll();
+
+        // The first run can not tell a drift from a commit being applied, the second one corrects it
+        taskCounters.reconcile();
+        assertEquals(1, taskCounters.getCounters().getTotal());
+
+        taskCounters.reconcile();
+        assertEquals(0, taskCounters.getCounters().getTotal());
+        assertTrue(taskCounters.getCounters().getByStatus().isEmpty());
+    }
+
+    @Test
+    public void testShowNotModified() throws Exception {
+        var request = get(baseUrl + NamedRoutes.taskPath(taskId))
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        mockMvc.perform(get(baseUrl + NamedRoutes.taskPath(taskId)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Renaming the embedded status changes the task response, so the tag has to change too
+        Status status = statusRepository.findById(statusId).get();
+        status.setName("Renamed");
+        statusRepository.save(status);
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.taskPath(taskId)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testIndexNotModified() throws Exception {
+        String etag = mockMvc.perform(get(baseUrl + NamedRoutes.tasksPath()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.tasksPath()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(FileReader.getResourceContent("UpdateTask")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.tasksPath()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testFilteredIndexNotModified() throws Exception {
+        Status status = statusRepository.findById(statusId).get();
+        Status done = statusRepository.save(new Status("Done"));
+        User user = userRepository.findById(userId).get();
+        List<Long> ids = new ArrayList<>();
+        for (Status taskStatus : List.of(status, done, status)) {
+            Task task = new Task();
+            task.setName("Filtered " + ids.size());
+            task.setTaskStatus(taskStatus);
+            task.setAuthor(user);
+            ids.add(taskRepository.save(task).getId());
+        }
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(ids.get(0)))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Filtered renamed\"}"))
+                .andExpect(status().isOk());
+
+        var filtered = get(baseUrl + NamedRoutes.tasksPath()).queryParam("taskStatus", statusId.toString());
+        String etag = mockMvc.perform(filtered)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // One task leaves the filter and another one enters it, count, max id and sum of versions stay the same
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(ids.get(0)))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskStatusId\": " + done.getId() + "}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(ids.get(1)))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"taskStatusId\": " + statusId + "}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(filtered.header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testChanges() throws Exception {
+        String body = mockMvc.perform(get(baseUrl + NamedRoutes.tasksChangesPath()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("upserts").isArray().hasSize(1);
+        long since = mapper.readTree(body).get("nextSince").asLong();
+
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Synced task");
+        data.setTaskStatusId(statusId);
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(delete(baseUrl + NamedRoutes.taskPath(taskId)).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        String changes = mockMvc.perform(get(baseUrl + NamedRoutes.tasksChangesPath())
+                        .queryParam("since", String.valueOf(since)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(changes).node("upserts").isArray().hasSize(1);
+        assertThatJson(changes).node("upserts[0].name").isEqualTo("Synced task");
+        assertThatJson(changes).node("deletes").isArray().containsExactly(taskId);
+
+        long nextSince = mapper.readTree(changes).get("nextSince").asLong();
+        assertTrue(nextSince > since);
+
+        String nothing = mockMvc.perform(get(baseUrl + NamedRoutes.tasksChangesPath())
+                        .queryParam("since", String.valueOf(nextSince)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(nothing).node("upserts").isArray().isEmpty();
+        assertThatJson(nothing).node("deletes").isArray().isEmpty();
+    }
+
+    @Test
+    public void testChangesCommittedOutOfOrder() {
+        Status status = statusRepository.findById(statusId).get();
+        User user = userRepository.findById(userId).get();
+        TransactionTemplate second = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        second.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        long since = taskService.findChanges(null).getNextSince();
+
+        // The first transaction changes a task before the second one and commits after it
+        TaskChangesDTO synced = transactionTemplate.execute(first -> {
+            saveWithChangeSeq("Committed last", status, user);
+            second.executeWithoutResult(tx -> saveWithChangeSeq("Committed first", status, user));
+            return second.execute(tx -> taskService.findChanges(since));
+        });
+
+        assertEquals(List.of("Committed first"), synced.getUpserts().stream().map(ResponseTaskDTO::getName).toList());
+        TaskChangesDTO next = taskService.findChanges(synced.getNextSince());
+        assertEquals(List.of("Committed last"), next.getUpserts().stream().map(ResponseTaskDTO::getName).toList());
+    }
+
+    private void saveWithChangeSeq(String name, Status status, User user) {
+        Task task = new Task();
+        task.setName(name);
+        task.setTaskStatus(status);
+        task.setAuthor(user);
+        task.setChangeSeq(changeSequence.current());
+        taskRepository.save(task);
+    }
+
     @Test
     public void testCreate() throws Exception {
         CreateTaskDTO data = new CreateTaskDTO();
@@ -163,6 +989,94 @@ public class TaskControllerTest {
         assertEquals(data.getDescription(), task.getDescription());
     }
 
+    @Test
+    public void testCreateQueryCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> labelIds = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            labelIds.add(labelRepository.save(new Label("Label " + i)).getId());
+        }
+
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Labeled task");
+        data.setExecutorId(userId);
+        data.setTaskStatusId(statusId);
+        data.setLabelIds(labelIds);
+        var request = post(baseUrl + NamedRoutes.tasksPath())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(data));
+        statistics.clear();
+        String body = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThatJson(body).node("labels").isArray().hasSize(20);
+        // One id check per referenced type instead of one lookup per label
+        assertTrue(statistics.getPrepareStatementCount() < 15, String.valueOf(statistics.getPrepareStatementCount()));
+
+        data.setLabelIds(Set.of(labelIds.iterator().next(), -2L, -1L));
+        String error = mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isNotFound())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertTrue(error.contains("Label with id=-2, -1 not found!"), error);
+    }
+
+    @Test
+    public void testCreateIdempotent() throws Exception {
+        CreateTaskDTO data = new CreateTaskDTO();
+        data.setName("Retried task");
+        data.setTaskStatusId(statusId);
+        String key = UUID.randomUUID().toString();
+
+        // Concurrent retries wait for the first request instead of creating their own tasks
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(executor.submit(() -> createTask(data, key)));
+        }
+        executor.shutdown();
+
+        Set<String> ids = new HashSet<>();
+        for (Future<String> response : responses) {
+            ids.add(mapper.readTree(response.get()).get("id").asText());
+        }
+        assertEquals(1, ids.size());
+        assertEquals(ids.iterator().next(), mapper.readTree(createTask(data, key)).get("id").asText());
+        assertEquals(1, taskRepository.count(QTask.task.name.eq(data.getName())));
+
+        data.setName("Other task");
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isUnprocessableEntity());
+        assertFalse(taskRepository.findByName(data.getName()).isPresent());
+
+        createTask(data, UUID.randomUUID().toString());
+        assertTrue(taskRepository.findByName(data.getName()).isPresent());
+    }
+
+    private String createTask(CreateTaskDTO data, String idempotencyKey) throws Exception {
+        return mockMvc.perform(post(baseUrl + NamedRoutes.tasksPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(data)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
     @Test
     public void testCreateError() throws Exception {
         CreateTaskDTO data = new CreateTaskDTO();
@@ -228,6 +1142,161 @@ public class TaskControllerTest {
         assertEquals("test", updatedTask.getDescription());
     }
 
+    @Test
+    public void testUpdateIfMatch() throws Exception {
+        String updateJSON = FileReader.getResourceContent("UpdateTask");
+        String etag = mockMvc.perform(get(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        long version = taskRepository.findById(taskId).get().getVersion();
+
+        String body = mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThatJson(body).node("version").isEqualTo(version + 1);
+
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, "W/\"" + (version + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testUpdateLabelsDiff() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Label kept = labelRepository.save(new Label("kept"));
+        Label removed = labelRepository.save(new Label("removed"));
+        Label added = labelRepository.save(new Label("added"));
+        Task task = taskRepository.findDetailedById(taskId).get();
+        task.setLabels(new HashSet<>(Set.of(kept, removed)));
+        long version = taskRepository.save(task).getVersion();
+
+        var request = put(baseUrl + NamedRoutes.taskPath(taskId))
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(Map.of("labelIds", List.of(kept.getId(), added.getId()))));
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        // Rows of the kept label stay, the collection is not deleted and inserted again
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(1, statistics.getCollectionUpdateCount());
+        assertEquals(Set.of(kept.getId(), added.getId()), findLabelIds(taskId));
+        assertEquals(version + 1, taskRepository.findById(taskId).get().getVersion());
+    }
+
+    @Test
+    public void testAddRemoveLabel() throws Exception {
+        Label label = labelRepository.save(new Label("single"));
+        Label other = labelRepository.save(new Label("other"));
+        long version = taskRepository.findById(taskId).get().getVersion();
+
+        String body = mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, label.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThatJson(body).node("labels").isArray().hasSize(1);
+        mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, other.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        assertEquals(Set.of(label.getId(), other.getId()), findLabelIds(taskId));
+        assertEquals(version + 2, taskRepository.findById(taskId).get().getVersion());
+
+        // Adding again is a no-op
+        mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, other.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        assertEquals(version + 2, taskRepository.findById(taskId).get().getVersion());
+
+        mockMvc.perform(delete(baseUrl + NamedRoutes.taskLabelPath(taskId, label.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        assertEquals(Set.of(other.getId()), findLabelIds(taskId));
+
+        mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, -1L))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete(baseUrl + NamedRoutes.taskLabelPath(-1L, label.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, label.getId())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testHistory() throws Exception {
+        Label label = labelRepository.save(new Label("history"));
+        String update = "{\"name\": \"Renamed task\", \"description\": null, \"taskStatusId\": " + statusId + "}";
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(update))
+                .andExpect(status().isOk());
+        // Nothing changed, nothing is written
+        mockMvc.perform(put(baseUrl + NamedRoutes.taskPath(taskId))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(update))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(baseUrl + NamedRoutes.taskLabelPath(taskId, label.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        String first = mockMvc.perform(get(baseUrl + NamedRoutes.taskHistoryPath(taskId))
+                        .queryParam("limit", "1")
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThatJson(first).node("content").isArray().hasSize(1);
+        assertThatJson(first).node("content[0].changedById").isEqualTo(userId);
+        assertThatJson(first).node("content[0].changes").isEqualTo(
+                "{\"name\": {\"from\": \"TaskWithoutLabel\", \"to\": \"Renamed task\"}}");
+
+        String next = mockMvc.perform(get(baseUrl + NamedRoutes.taskHistoryPath(taskId))
+                        .queryParam("limit", "1")
+                        .queryParam("after", mapper.readTree(first).get("nextAfter").asText())
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThatJson(next).node("content[0].changes").isEqualTo(
+                "{\"labelIds\": {\"from\": [], \"to\": [" + label.getId() + "]}}");
+        assertThatJson(next).node("content[0].seq").isEqualTo(taskRepository.findById(taskId).get().getVersion());
+        assertThatJson(next).node("nextAfter").isNull();
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.taskHistoryPath(taskId))
+                        .queryParam("limit", "0")
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     public void testUpdateError() throws Exception {
         String updateJSON = FileReader.getResourceContent("WrongUpdateTask");
@@ -293,4 +1362,132 @@ public class TaskControllerTest {
 
         assertTrue(body.contains("Permission denied!"));
     }
+
+    @Test
+    public void testBulkDelete() throws Exception {
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        String anotherToken = "Bearer " + jwtUtils.generateToken(userDTO.getEmail());
+        User another = userRepository.findById(userService.save(userDTO).getId()).get();
+        Label label = labelRepository.save(new Label("archived"));
+        Status status = statusRepository.findById(statusId).get();
+        User user = userRepository.findById(userId).get();
+
+        List<Long> ids = new ArrayList<>(List.of(taskId));
+        for (int i = 0; i < 4; i++) {
+            Task task = new Task();
+            task.setName("Archived " + i);
+            task.setTaskStatus(status);
+            task.setAuthor(user);
+            task.setLabels(Set.of(label));
+            ids.add(taskRepository.save(task).getId());
+        }
+        Task foreign = new Task();
+        foreign.setName("Foreign");
+        foreign.setTaskStatus(status);
+        foreign.setAuthor(another);
+        taskRepository.save(foreign);
+        taskCounters.rebuild();
+
+        var request = post(baseUrl + NamedRoutes.tasksBulkDeletePath())
+                .queryParam("taskStatus", statusId.toString())
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String body = mockMvc.perform(request)
+                .andExpect(status().isAccepted())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long jobId = mapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(get(baseUrl + NamedRoutes.tasksBulkDeletePath(jobId))
+                        .header(HttpHeaders.AUTHORIZATION, anotherToken))
+                .andExpect(status().isNotFound());
+
+        JsonNode job = awaitDeleteJob(jobId);
+        assertEquals("DONE", job.get("status").asText());
+        assertEquals(5, job.get("total").asLong());
+        assertEquals(1, job.get("denied").asLong());
+        assertEquals(5, job.get("deleted").asLong());
+        assertEquals(List.of(foreign.getId()), taskRepository.findAll().stream().map(Task::getId).toList());
+        assertEquals(ids.size(), tombstoneRepository.findAllById(ids).size());
+        assertNull(taskCounters.getCounters().getByLabel().get(label.getId()));
+        assertEquals(1, taskCounters.getCounters().getTotal());
+    }
+
+    @Test
+    public void testBulkDeleteErrors() throws Exception {
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksBulkDeletePath())
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(get(baseUrl + NamedRoutes.tasksBulkDeletePath(-1L))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post(baseUrl + NamedRoutes.tasksBulkDeletePath())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(Map.of("ids", List.of(taskId)))))
+                .andExpect(status().isUnauthorized());
+        assertTrue(taskRepository.existsById(taskId));
+    }
+
+    private Set<Long> findLabelIds(Long id) {
+        return taskRepository.findDetailedById(id).get().getLabels().stream()
+                .map(Label::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private JsonNode awaitDeleteJob(Long jobId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = mockMvc.perform(get(baseUrl + NamedRoutes.tasksBulkDeletePath(jobId))
+                            .header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            JsonNode job = mapper.readTree(body);
+            if (job.get("finishedAt") != null && !job.get("finishedAt").isNull()) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Delete job " + jobId + " has not finished");
+    }
+
+    private List<String> findNames(String param, Long... ids) throws Exception {
+        var request = get(baseUrl + NamedRoutes.tasksPath())
+                .queryParam(param, Arrays.stream(ids).map(String::valueOf).toArray(String[]::new))
+                .queryParam("fields", "name")
+                .header(HttpHeaders.AUTHORIZATION, token);
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return mapper.readTree(body).findValuesAsText("name");
+    }
+
+    // Walks the pages of size 1, so that every task is reached through a cursor
+    private List<String> findPages(String sort) throws Exception {
+        List<String> names = new ArrayList<>();
+        String after = null;
+
+        do {
+            var request = get(baseUrl + NamedRoutes.tasksPath())
+                    .queryParam("limit", "1")
+                    .queryParam("sort", sort)
+                    .queryParam("fields", "name");
+            if (after != null) {
+                request.queryParam("after", after);
+            }
+            JsonNode page = mapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString());
+
+            names.add(page.get("content").get(0).get("name").asText());
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (after != null);
+
+        return names;
+    }
 }
@@ -20,9 +20,14 @@ import hexlet.code.util.ModelToUpdateGenerator;
 import hexlet.code.util.NamedRoutes;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.instancio.Instancio;
 import org.openapitools.jackson.nullable.JsonNullable;
 
+import java.util.UUID;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -74,6 +79,8 @@ public class UserControllerTest {
 
     @Autowired
     private JWTUtils jwtUtils;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     private String token;
 
 
@@ -97,6 +104,15 @@ public class UserControllerTest {
         assertThatJson(body).isArray();
     }
 
+    @Test
+    public void testIndexFields() throws Exception {
+        MvcResult result = mockMvc.perform(get(baseUrl + NamedRoutes.usersPath()).queryParam("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        assertThatJson(body).node("[0]").isObject().containsOnlyKeys("id", "email");
+    }
+
     @Test
     public void testCreate() throws Exception {
         CreateUserDTO data = Instancio.of(createGenerator.getUserModel()).create();
@@ -114,6 +130,26 @@ public class UserControllerTest {
         assertNotEquals(data.getPassword(), user.getPassword());
     }
 
+    @Test
+    public void testCreateIdempotent() throws Exception {
+        CreateUserDTO data = Instancio.of(createGenerator.getUserModel()).create();
+        String key = UUID.randomUUID().toString();
+
+        var request = post(baseUrl + NamedRoutes.usersPath())
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(data));
+
+        String first = mockMvc.perform(request).andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        // Without the key the retry would fail as the email is taken
+        String retry = mockMvc.perform(request).andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(mapper.readTree(first).get("id"), mapper.readTree(retry).get("id"));
+        assertEquals(data.getEmail(), mapper.readTree(retry).get("email").asText());
+    }
+
     @Test
     public void testOneFieldCreateError() throws Exception {
         String createJSON = FileReader.getResourceContent("NullFirstName");
@@ -194,6 +230,77 @@ public class UserControllerTest {
         assertNotEquals(data.getPassword().get(), updatedUser.getPassword());
     }
 
+    @Test
+    public void testCurrentUserCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        ResponseUserDTO user = userService.save(userDTO);
+        token = "Bearer " + jwtUtils.generateToken(user.getEmail());
+
+        createStatus("First cached");
+        statistics.clear();
+        createStatus("Second cached");
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+
+        // A committed change of the user drops it
+        mockMvc.perform(put(baseUrl + NamedRoutes.userPath(user.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(FileReader.getResourceContent("OnlyFirstName")))
+                .andExpect(status().isOk());
+        statistics.clear();
+        createStatus("Third cached");
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+
+        mockMvc.perform(delete(baseUrl + NamedRoutes.userPath(user.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(baseUrl + NamedRoutes.statusesPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Deleted user\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private void createStatus(String name) throws Exception {
+        mockMvc.perform(post(baseUrl + NamedRoutes.statusesPath())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + name + "\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void testUpdateIfMatch() throws Exception {
+        CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
+        ResponseUserDTO user = userService.save(userDTO);
+        token = "Bearer " + jwtUtils.generateToken(user.getEmail());
+        String updateJSON = FileReader.getResourceContent("OnlyFirstName");
+        String etag = "\"" + user.getVersion() + "\"";
+
+        String body = mockMvc.perform(put(baseUrl + NamedRoutes.userPath(user.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThatJson(body).node("version").isEqualTo(user.getVersion() + 1);
+
+        // The version read before the first update is stale now
+        var result = mockMvc.perform(put(baseUrl + NamedRoutes.userPath(user.getId()))
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJSON))
+                .andExpect(status().isPreconditionFailed())
+                .andReturn();
+        assertTrue(result.getResponse().getContentAsString().contains("was changed by another request"));
+        assertEquals(user.getVersion() + 1, userRepository.findById(user.getId()).get().getVersion());
+    }
+
     @Test
     public void testUpdateOneField() throws Exception {
         CreateUserDTO userDTO = Instancio.of(createGenerator.getUserModel()).create();
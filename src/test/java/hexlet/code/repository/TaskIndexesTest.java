@@ -0,0 +1,90 @@
+package hexlet.code.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks through EXPLAIN that the common GET /api/tasks filters and the lookups by unique names use indexes.
+ * Runs against H2 by default and against PostgreSQL when spring.datasource points to it.
+ */
+@SpringBootTest
+public class TaskIndexesTest {
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("select t.id from tasks t where t.task_status_id = 1", "IX_tasks_task_status_id");
+        QUERIES.put("select t.id from tasks t where t.executor_id = 1", "IX_tasks_executor_id");
+        QUERIES.put("select t.id from tasks t where t.author_id = 1", "IX_tasks_author_id");
+        QUERIES.put("select t.id from tasks t where t.executor_id = 1 order by t.created_at, t.id limit 50",
+                "IX_tasks_executor_id");
+        // Pages after a cursor, sorted by name and by creation time
+        QUERIES.put("select t.id from tasks t where t.name >= 'M' order by t.name, t.id limit 50", "IX_tasks_name_id");
+        QUERIES.put("select t.id from tasks t where t.created_at <= now() order by t.created_at desc, t.id desc"
+                + " limit 50", "IX_tasks_created_at_id");
+        QUERIES.put("select l.task_id from tasks_labels l where l.labels_id = 1", "IX_tasks_labels_labels_id");
+        QUERIES.put("select l.labels_id from tasks_labels l where l.task_id = 1", "UX_tasks_labels_task_id");
+        QUERIES.put("select u.id from users u where u.email = 'user@mail.com'", "UX_users_email");
+        QUERIES.put("select s.id from statuses s where s.name = 'New'", "UX_statuses_name");
+        QUERIES.put("select l.id from labels l where l.name = 'Bug'", "UX_labels_name");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testFilterQueriesUseIndexes() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+
+            try (Statement statement = connection.createStatement()) {
+                if (postgres) {
+                    // Tiny test tables are cheaper to scan, forbid it to see which index the planner would take
+                    statement.execute("SET enable_seqscan = off");
+                }
+
+                for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+                    String plan = explain(connection, query.getKey()).toLowerCase();
+                    assertFalse(plan.contains("tablescan") || plan.contains("seq scan"),
+                            query.getKey() + " scans the whole table:\n" + plan);
+                    // H2 keeps its own indexes on foreign keys and may prefer them, so names are checked on PostgreSQL
+                    if (postgres) {
+                        assertTrue(plan.contains(query.getValue().toLowerCase()),
+                                query.getKey() + " does not use " + query.getValue() + ":\n" + plan);
+                    }
+                }
+
+                if (postgres) {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+
+            return null;
+        });
+    }
+
+    private static String explain(Connection connection, String query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + query)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+
+        return plan.toString();
+    }
+}
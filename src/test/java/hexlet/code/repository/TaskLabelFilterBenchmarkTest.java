@@ -0,0 +1,167 @@
+package hexlet.code.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import hexlet.code.model.Label;
+import hexlet.code.model.QLabel;
+import hexlet.code.model.QTask;
+import hexlet.code.model.Status;
+import hexlet.code.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares label filters written as joins with the EXISTS subqueries of the TaskRepository bindings.
+ * Seeds benchmark.tasks tasks (1M by default) with up to three of 20 labels each and logs median times.
+ * Runs only with -Dbenchmark=true, against H2 by default and against PostgreSQL when spring.datasource points to it.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TaskLabelFilterBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskLabelFilterBenchmarkTest.class);
+
+    private static final QTask TASK = QTask.task;
+    private static final QLabel LABEL = QLabel.label;
+    private static final int LABELS = 20;
+    private static final int BATCH_SIZE = 10000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StatusRepository statusRepository;
+    @Autowired
+    private LabelRepository labelRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+    private final List<Long> labelIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+        statusRepository.deleteAll();
+        labelRepository.deleteAll();
+
+        User user = new User();
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setEmail("benchmark@mail.com");
+        user.setPassword("password");
+        long userId = userRepository.save(user).getId();
+        long statusId = statusRepository.save(new Status("Benchmark")).getId();
+        for (int i = 0; i < LABELS; i++) {
+            labelIds.add(labelRepository.save(new Label("Label " + i)).getId());
+        }
+
+        int tasks = Integer.getInteger("benchmark.tasks", 1_000_000);
+        Random random = new Random(1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> taskRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> labelRows = new ArrayList<>(BATCH_SIZE * 2);
+
+        for (long id = 1; id <= tasks; id++) {
+            taskRows.add(new Object[] {id, "Task " + id, userId, statusId, now});
+            // Labels in a row are distinct, rare labels are the selective ones
+            int first = random.nextInt(LABELS);
+            for (int i = 0; i < random.nextInt(4); i++) {
+                labelRows.add(new Object[] {id, labelIds.get((first + i * 7) % LABELS)});
+            }
+
+            if (taskRows.size() == BATCH_SIZE || id == tasks) {
+                jdbcTemplate.batchUpdate("insert into tasks (id, name, author_id, task_status_id, created_at)"
+                        + " values (?, ?, ?, ?, ?)", taskRows);
+                jdbcTemplate.batchUpdate("insert into tasks_labels (task_id, labels_id) values (?, ?)", labelRows);
+                taskRows.clear();
+                labelRows.clear();
+            }
+        }
+
+        LOGGER.info("Seeded " + tasks + " tasks");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("delete from tasks_labels");
+        jdbcTemplate.update("delete from tasks");
+    }
+
+    @Test
+    public void testAnyLabel() {
+        Long[] ids = {labelIds.get(0), labelIds.get(1)};
+
+        List<Long> joined = measure("any label, join and distinct", () -> new JPAQuery<Long>(entityManager)
+                .select(TASK.id).distinct()
+                .from(TASK).join(TASK.labels, LABEL)
+                .where(LABEL.id.in(ids))
+                .fetch());
+        List<Long> exists = measure("any label, exists", () -> findIds(TASK.labels.any().id.in(ids)));
+
+        assertEquals(new HashSet<>(joined), new HashSet<>(exists));
+    }
+
+    @Test
+    public void testAllLabels() {
+        Long[] ids = {labelIds.get(0), labelIds.get(7)};
+
+        List<Long> grouped = measure("all labels, join and group by", () -> new JPAQuery<Long>(entityManager)
+                .select(TASK.id)
+                .from(TASK).join(TASK.labels, LABEL)
+                .where(LABEL.id.in(ids))
+                .groupBy(TASK.id)
+                .having(LABEL.id.count().eq((long) ids.length))
+                .fetch());
+        List<Long> exists = measure("all labels, exists per label", () -> findIds(Arrays.stream(ids)
+                .map(TASK.labels.any().id::eq)
+                .reduce(TASK.id.isNotNull(), (all, condition) -> all.and(condition))));
+
+        assertEquals(new HashSet<>(grouped), new HashSet<>(exists));
+    }
+
+    private List<Long> findIds(Predicate predicate) {
+        return new JPAQuery<Long>(entityManager).select(TASK.id).from(TASK).where(predicate).fetch();
+    }
+
+    private static List<Long> measure(String name, Supplier<List<Long>> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+
+        long[] times = new long[RUNS];
+        List<Long> result = null;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.get();
+            times[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+        LOGGER.info(name + ": " + result.size() + " tasks, median " + times[RUNS / 2] / 1_000_000 + " ms");
+        return result;
+    }
+}